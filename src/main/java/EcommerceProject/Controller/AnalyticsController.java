@@ -3,12 +3,16 @@ package EcommerceProject.Controller;
 import EcommerceProject.payload.AnalyticsResponse;
 import EcommerceProject.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api")
 public class AnalyticsController {
@@ -17,8 +21,14 @@ public class AnalyticsController {
     private AnalyticsService analyticsService;
 
     @GetMapping("/admin/app/analytics")
-    public ResponseEntity<AnalyticsResponse> getAnalytics() {
-        AnalyticsResponse response = analyticsService.getAnalyticsData();
+    public ResponseEntity<AnalyticsResponse> getAnalytics(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "granularity", defaultValue = "DAY") String granularity,
+            @RequestParam(name = "top", defaultValue = "10") int top) {
+        AnalyticsResponse response = from != null && to != null
+                ? analyticsService.getAnalyticsData(from, to, granularity, top)
+                : analyticsService.getAnalyticsData();
         return new ResponseEntity<AnalyticsResponse>(response, HttpStatus.OK);
     }
 }
\ No newline at end of file
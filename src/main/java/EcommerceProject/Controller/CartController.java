@@ -3,6 +3,7 @@ package EcommerceProject.Controller;
 import EcommerceProject.Model.Cart;
 import EcommerceProject.Model.CartItem;
 import EcommerceProject.payload.CartDTO;
+import EcommerceProject.payload.CartDeltaDTO;
 import EcommerceProject.payload.CartItemDTO;
 import EcommerceProject.repositories.CartRepository;
 import EcommerceProject.service.CartService;
@@ -33,11 +34,14 @@ public class CartController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // Returns the whole cart; with delta=true only the changed line and the new total (plus the cart if fullCart=true)
     @PostMapping("/carts/products/{productId}/quantity/{quantity}")
-    public ResponseEntity<CartDTO> addProductToCart(@PathVariable Long productId,
-                                                    @PathVariable Integer quantity){
-        CartDTO cartDTO = cartService.addProductToCart(productId, quantity);
-        return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.CREATED);
+    public ResponseEntity<?> addProductToCart(@PathVariable Long productId,
+                                              @PathVariable Integer quantity,
+                                              @RequestParam(name = "delta", defaultValue = "false") boolean delta,
+                                              @RequestParam(name = "fullCart", defaultValue = "false") boolean fullCart){
+        CartDeltaDTO cartDeltaDTO = cartService.addProductToCart(productId, quantity, !delta || fullCart);
+        return new ResponseEntity<>(delta ? cartDeltaDTO : cartDeltaDTO.getCart(), HttpStatus.CREATED);
     }
 
     @GetMapping("/carts")
@@ -54,13 +58,15 @@ public class CartController {
     }
 
     @PutMapping("/cart/products/{productId}/quantity/{operation}")
-    public ResponseEntity<CartDTO> updateCartProduct(@PathVariable Long productId,
-                                                     @PathVariable String operation) {
+    public ResponseEntity<?> updateCartProduct(@PathVariable Long productId,
+                                               @PathVariable String operation,
+                                               @RequestParam(name = "delta", defaultValue = "false") boolean delta,
+                                               @RequestParam(name = "fullCart", defaultValue = "false") boolean fullCart) {
 
-        CartDTO cartDTO = cartService.updateProductQuantityInCart(productId,
-                operation.equalsIgnoreCase("delete") ? -1 : 1);
+        CartDeltaDTO cartDeltaDTO = cartService.updateProductQuantityInCart(productId,
+                operation.equalsIgnoreCase("delete") ? -1 : 1, !delta || fullCart);
 
-        return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
+        return new ResponseEntity<>(delta ? cartDeltaDTO : cartDeltaDTO.getCart(), HttpStatus.OK);
     }
     @DeleteMapping("/carts/{cartId}/product/{productId}")
     public ResponseEntity<String> deleteProductFromCart(@PathVariable Long cartId,
@@ -2,32 +2,58 @@ package EcommerceProject.Controller;
 
 import EcommerceProject.config.AppConstants;
 import EcommerceProject.payload.*;
+import EcommerceProject.service.ExportService;
+import EcommerceProject.service.OrderRequestService;
 import EcommerceProject.service.OrderService;
 import EcommerceProject.service.StripeService;
 import EcommerceProject.util.AuthUtil;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/api")
 public class OrderController {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Value("${ecom.export.timeoutMs:1800000}")
+    private long exportTimeoutMs;
+
     @Autowired
     private AuthUtil authUtil;
 
     @Autowired
     private StripeService stripeService;
 
+    @Autowired
+    private OrderRequestService orderRequestService;
+
     @PostMapping("/order/users/payments/{paymentMethod}")
-    public ResponseEntity<OrderDTO> orderProducts(@PathVariable String paymentMethod, @RequestBody OrderRequestDTO orderRequestDTO) {
+    public ResponseEntity<?> orderProducts(@PathVariable String paymentMethod, @RequestBody OrderRequestDTO orderRequestDTO,
+                                           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         String emailId = authUtil.loggedInEmail();
+        // With a key the order is placed in the background; poll the returned request for the result
+        if (idempotencyKey != null) {
+            OrderRequestStatusDTO request = orderRequestService.submit(emailId, idempotencyKey, paymentMethod, orderRequestDTO);
+            boolean finished = request.getFinishedAt() != null;
+            return new ResponseEntity<>(request, finished ? HttpStatus.OK : HttpStatus.ACCEPTED);
+        }
         OrderDTO order = orderService.placeOrder(
                 emailId,
                 orderRequestDTO.getAddressId(),
@@ -40,9 +66,15 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
 
+    @GetMapping("/order/requests/{requestId}")
+    public ResponseEntity<OrderRequestStatusDTO> getOrderRequest(@PathVariable Long requestId) {
+        OrderRequestStatusDTO request = orderRequestService.getStatus(authUtil.loggedInEmail(), requestId);
+        return new ResponseEntity<>(request, HttpStatus.OK);
+    }
+
     @PostMapping("/order/stripe-client-secret")
     public ResponseEntity<String> createStripeClientSecret(@RequestBody StripePaymentDTO stripePaymentDto) throws StripeException {
-        System.out.println("StripePaymentDTO Received " + stripePaymentDto);
+        logger.debug("StripePaymentDTO Received {}", stripePaymentDto);
         PaymentIntent paymentIntent = stripeService.paymentIntent(stripePaymentDto);
         return new ResponseEntity<>(paymentIntent.getClientSecret(), HttpStatus.CREATED);
     }
@@ -52,12 +84,33 @@ public class OrderController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_ORDERS_BY, required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeCount", defaultValue = "false", required = false) boolean includeCount
     ) {
+        if (cursor != null) {
+            OrderResponse orderResponse = orderService.getAllOrdersByCursor(cursor, pageSize, sortBy, sortOrder, includeCount);
+            return new ResponseEntity<OrderResponse>(orderResponse, HttpStatus.OK);
+        }
         OrderResponse orderResponse = orderService.getAllOrders(pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<OrderResponse>(orderResponse, HttpStatus.OK);
     }
 
+    // Streams all orders; the response starts before the last row is read
+    @GetMapping("/admin/orders/export")
+    public WebAsyncTask<Void> exportOrders(
+            @RequestParam(name = "format", defaultValue = "csv", required = false) String format,
+            HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"");
+        // Only exports get the long timeout; other async requests keep the default
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            exportService.exportOrders(exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
     @GetMapping("/seller/orders")
     public ResponseEntity<OrderResponse> getAllSellerOrders(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
@@ -1,17 +1,28 @@
 package EcommerceProject.Controller;
 
 import EcommerceProject.config.AppConstants;
+import EcommerceProject.payload.CartPriceSyncDTO;
+import EcommerceProject.payload.ExportFormat;
 import EcommerceProject.payload.ProductDTO;
+import EcommerceProject.payload.ProductImportResponse;
 import EcommerceProject.payload.ProductResponse;
+import EcommerceProject.service.CartPriceSyncService;
+import EcommerceProject.service.ExportService;
+import EcommerceProject.service.ProductImportService;
 import EcommerceProject.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api")
@@ -20,6 +31,18 @@ public class ProductController {
     @Autowired
     ProductService productService;
 
+    @Autowired
+    CartPriceSyncService cartPriceSyncService;
+
+    @Autowired
+    ExportService exportService;
+
+    @Value("${ecom.export.timeoutMs:1800000}")
+    long exportTimeoutMs;
+
+    @Autowired
+    ProductImportService productImportService;
+
 
     @PostMapping("/admin/categories/{categoryId}/product")
     public ResponseEntity<ProductDTO> addProduct(@Valid @RequestBody ProductDTO productDTO,
@@ -35,7 +58,14 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder){
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeCount", defaultValue = "false", required = false) boolean includeCount){
+        // Passing cursor (empty for the first page) switches to keyset pagination
+        if (cursor != null) {
+            ProductResponse productResponse = productService.getAllProductsByCursor(cursor, pageSize, sortBy, sortOrder, keyword, category, includeCount);
+            return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        }
         ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder,keyword,category);
         return new ResponseEntity<>(productResponse,HttpStatus.OK);
     }
@@ -66,6 +96,12 @@ public class ProductController {
         return new ResponseEntity<>(updatedProductDTO, HttpStatus.OK);
     }
 
+    @GetMapping("/admin/products/{productId}/cart-sync")
+    public ResponseEntity<CartPriceSyncDTO> getCartPriceSync(@PathVariable Long productId){
+        CartPriceSyncDTO cartPriceSyncDTO = cartPriceSyncService.getStatus(productId);
+        return new ResponseEntity<>(cartPriceSyncDTO, HttpStatus.OK);
+    }
+
     @DeleteMapping("/admin/products/{productId}")
     public ResponseEntity<ProductDTO> deleteProduct(@PathVariable Long productId){
         ProductDTO deletedProduct = productService.deleteProduct(productId);
@@ -90,6 +126,32 @@ public class ProductController {
         return new ResponseEntity<>(productResponse,HttpStatus.OK);
     }
 
+    // Streams all products; the response starts before the last row is read
+    @GetMapping("/admin/products/export")
+    public WebAsyncTask<Void> exportProducts(
+            @RequestParam(name = "format", defaultValue = "csv", required = false) String format,
+            HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+        // Only exports get the long timeout; other async requests keep the default
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            exportService.exportProducts(exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
+    // Rows name their own categoryId; the report lists every row that was not imported
+    @PostMapping({"/admin/products/import", "/seller/products/import"})
+    public ResponseEntity<ProductImportResponse> importProducts(@RequestParam("file") MultipartFile file,
+                                                                @RequestParam(name = "format", defaultValue = "csv", required = false) String format) throws IOException {
+        ExportFormat importFormat = ExportFormat.of(format);
+        try (InputStream in = file.getInputStream()) {
+            ProductImportResponse report = productImportService.importProducts(importFormat, in);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        }
+    }
+
     @PostMapping("/seller/categories/{categoryId}/product")
     public ResponseEntity<ProductDTO> addProductSeller(@Valid @RequestBody ProductDTO productDTO,
                                                  @PathVariable Long categoryId){
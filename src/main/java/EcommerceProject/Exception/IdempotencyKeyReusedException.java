@@ -0,0 +1,9 @@
+package EcommerceProject.Exception;
+
+public class IdempotencyKeyReusedException extends APIException {
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
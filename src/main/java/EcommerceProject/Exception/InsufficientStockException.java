@@ -0,0 +1,19 @@
+package EcommerceProject.Exception;
+
+import java.util.Map;
+
+public class InsufficientStockException extends APIException {
+    private static final long serialVersionUID = 1L;
+
+    // productId -> what went wrong for that line
+    private final Map<String, String> shortages;
+
+    public InsufficientStockException(Map<String, String> shortages) {
+        super("Not enough stock for " + shortages.size() + " item(s)");
+        this.shortages = shortages;
+    }
+
+    public Map<String, String> getShortages() {
+        return shortages;
+    }
+}
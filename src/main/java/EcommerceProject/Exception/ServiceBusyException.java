@@ -0,0 +1,9 @@
+package EcommerceProject.Exception;
+
+public class ServiceBusyException extends APIException {
+    private static final long serialVersionUID = 1L;
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Order totals for one day, category or seller, kept up to date at checkout. Like the counters, each bucket
+ * is spread over several slots so concurrent checkouts do not queue on one row; readers sum the slots.
+ */
+@Entity
+@Data
+@Table(name = "analytics_buckets")
+@IdClass(AnalyticsBucket.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsBucket {
+    // DAY, CATEGORY or SELLER
+    @Id
+    @Column(length = 10)
+    private String dimension;
+
+    // ISO date, category id or seller id
+    @Id
+    @Column(length = 40)
+    private String bucketKey;
+
+    @Id
+    private Integer slot;
+
+    private Long orders;
+    private Long units;
+    private Double revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String dimension;
+        private String bucketKey;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,38 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A running total (products, orders, revenue) spread over several slots. Writers add to a random slot
+ * so concurrent checkouts do not queue on one row; readers sum the slots.
+ */
+@Entity
+@Data
+@Table(name = "analytics_counters")
+@IdClass(AnalyticsCounter.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCounter {
+    @Id
+    @Column(length = 20)
+    private String name;
+
+    @Id
+    private Integer slot;
+
+    @Column(name = "counter_value")
+    private Double value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String name;
+        private Integer slot;
+    }
+}
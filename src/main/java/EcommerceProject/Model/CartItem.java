@@ -7,12 +7,15 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Data
-@Table(name = "cart_items")
+@Table(name = "cart_items",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}))
 @NoArgsConstructor
 @AllArgsConstructor
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids (allocated 50 at a time) let Hibernate batch cart line inserts, IDENTITY cannot
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long cartItemId;
 
     @ManyToOne
@@ -0,0 +1,35 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest cart price sync of a product. Kept in the database so any instance can report the
+ * progress of a job running on another one.
+ */
+@Entity
+@Data
+@Table(name = "cart_price_sync_jobs")
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPriceSyncJob {
+    @Id
+    private Long productId;
+
+    // Bumped every time the product is queued again, so a superseded run stops reporting progress
+    @Column(name = "sync_run", nullable = false)
+    private long run;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private CartPriceSyncStatus status;
+
+    private long cartItemsTotal;
+    private long cartItemsUpdated;
+    private LocalDateTime queuedAt;
+    private LocalDateTime finishedAt;
+}
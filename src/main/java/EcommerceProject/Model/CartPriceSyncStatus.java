@@ -0,0 +1,8 @@
+package EcommerceProject.Model;
+
+public enum CartPriceSyncStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,39 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue of one category on one day, filled in by the analytics rollup job.
+ */
+@Entity
+@Data
+@Table(name = "category_rollups_daily")
+@IdClass(CategoryRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRollup {
+    @Id
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    @Id
+    private Long categoryId;
+
+    private long orders;
+    private long units;
+    private double revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long categoryId;
+    }
+}
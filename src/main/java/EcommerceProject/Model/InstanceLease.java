@@ -0,0 +1,28 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named lease that at most one running instance holds, for modes that keep state in process.
+ * The holder renews it while it runs; once expiresAt has passed another instance may take it over.
+ */
+@Entity
+@Data
+@Table(name = "instance_leases")
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceLease {
+    @Id
+    private String name;
+
+    private String holder;
+
+    private LocalDateTime expiresAt;
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +30,9 @@ public class Order {
 
     private LocalDate orderDate;
 
+    // Placement time, used to bucket orders by hour; null on orders from before it was recorded
+    private LocalDateTime createdAt;
+
     @OneToOne
     @JoinColumn(name = "payment_id")
     private Payment payment;
@@ -0,0 +1,64 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A checkout accepted for asynchronous placement. The (email, idempotency key) pair is unique,
+ * so a client retrying the same checkout gets this request back instead of a second order.
+ * While PROCESSING the request is leased to one instance; a lease that runs out is queued again.
+ */
+@Entity
+@Data
+@Table(name = "order_requests", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_requests_email_key", columnNames = {"email", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_order_requests_status", columnList = "status")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long requestId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String email;
+
+    // SHA-256 of the checkout body, so a key reused for a different checkout is refused
+    @Column(length = 64)
+    private String requestHash;
+
+    private Long addressId;
+    private String paymentMethod;
+    private String pgName;
+    private String pgPaymentId;
+    private String pgStatus;
+    private String pgResponseMessage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 12)
+    private OrderRequestStatus status;
+
+    // Instance placing the order and until when, while PROCESSING
+    @Column(length = 100)
+    private String owner;
+    private LocalDateTime leaseExpiresAt;
+
+    // Set once the order is placed
+    private Long orderId;
+
+    // Why placement failed
+    @Column(length = 1000)
+    private String message;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package EcommerceProject.Model;
+
+public enum OrderRequestStatus {
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
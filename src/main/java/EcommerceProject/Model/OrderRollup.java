@@ -0,0 +1,31 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Orders, units and revenue for one hour, filled in by the analytics rollup job.
+ */
+@Entity
+@Data
+@Table(name = "order_rollups_hourly", indexes = {
+        @Index(name = "idx_order_rollups_day", columnList = "rollup_day")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollup {
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    private long orders;
+    private long units;
+    private double revenue;
+}
@@ -0,0 +1,54 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event written in the same transaction as the change it describes and published later by the
+ * outbox relay. Delivery is at least once, so consumers should skip event ids they have already seen.
+ */
+@Entity
+@Data
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_published", columnList = "published_at, event_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    // ORDER, PRODUCT or STOCK
+    @Column(length = 20)
+    private String aggregateType;
+
+    private Long aggregateId;
+
+    // e.g. ORDER_PLACED, ORDER_STATUS_CHANGED, PRODUCT_UPDATED, STOCK_CHANGED
+    @Column(length = 40)
+    private String eventType;
+
+    // JSON
+    @Column(length = 100000)
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent(String aggregateType, Long aggregateId, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+}
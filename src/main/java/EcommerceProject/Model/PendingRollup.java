@@ -0,0 +1,24 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order not yet folded into the rollup tables. Written in the checkout transaction, so the row becomes
+ * visible when the order commits, however long after its id was handed out that is.
+ */
+@Entity
+@Data
+@Table(name = "pending_rollups")
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingRollup {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+}
@@ -0,0 +1,8 @@
+package EcommerceProject.Model;
+
+public enum ReservationType {
+    HOLD,
+    RELEASE,
+    EXPIRE,
+    CONSUME,
+}
@@ -0,0 +1,38 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One row per (order, seller) pair, written at checkout so a seller's orders can be paged from an index
+ * instead of walking every order's lines.
+ */
+@Entity
+@Data
+@Table(name = "seller_orders", indexes = {
+        @Index(name = "idx_seller_orders_seller_order", columnList = "seller_id, order_id")
+})
+@IdClass(SellerOrder.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrder {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long orderId;
+        private Long sellerId;
+    }
+}
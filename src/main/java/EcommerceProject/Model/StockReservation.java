@@ -0,0 +1,52 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only stock reservation ledger. A user's hold on a product is the sum of its
+ * HOLD entries minus its RELEASE, EXPIRE and CONSUME entries; CONSUME entries are later applied to products.quantity and marked reconciled.
+ */
+@Entity
+@Data
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_type_reconciled", columnList = "type, reconciled")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = 50)
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    private Long userId;
+    private Long productId;
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private ReservationType type;
+
+    // Only set on HOLD entries
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+
+    // Set on CONSUME entries once they have been applied to products.quantity
+    private boolean reconciled;
+
+    public StockReservation(Long userId, Long productId, Integer quantity, ReservationType type, LocalDateTime expiresAt) {
+        this.userId = userId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.type = type;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+}
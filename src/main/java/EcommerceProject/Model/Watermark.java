@@ -0,0 +1,23 @@
+package EcommerceProject.Model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How far a background job has processed an append-only table, by id.
+ */
+@Entity
+@Data
+@Table(name = "watermarks")
+@NoArgsConstructor
+@AllArgsConstructor
+public class Watermark {
+    @Id
+    private String name;
+
+    private Long position;
+}
@@ -1,6 +1,7 @@
 package EcommerceProject.Security.jwt;
 
 import EcommerceProject.Security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -26,24 +29,42 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    // Trust the user claims in the token instead of loading the user on every request.
+    // Role changes and deleted accounts then only take effect once the token expires.
+    @Value("${ecom.jwt.statelessPrincipal:false}")
+    private boolean statelessPrincipal;
+
+    // Share of requests whose debug lines are logged, so DEBUG can stay on under load
+    @Value("${ecom.logging.authDebugSampleRate:1.0}")
+    private double debugSampleRate;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        logger.debug("AuthTokenFilter called for URI: {}", request.getRequestURI());
+        boolean debug = logger.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < debugSampleRate;
+        if (debug) {
+            logger.debug("AuthTokenFilter called for URI: {}", request.getRequestURI());
+        }
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            String jwt = parseJwt(request, debug);
+            Claims claims = jwt != null ? jwtUtils.getValidClaims(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = statelessPrincipal ? jwtUtils.getPrincipalFromClaims(claims) : null;
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails,
                                 null,
                                 userDetails.getAuthorities());
-                logger.debug("Roles from JWT: {}", userDetails.getAuthorities());
+                if (debug) {
+                    logger.debug("Roles from JWT: {}", userDetails.getAuthorities());
+                }
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -62,16 +83,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 //        return jwt;
 //    }
 
-    private String parseJwt(HttpServletRequest request) {
-        String path = request.getRequestURI();
+    private String parseJwt(HttpServletRequest request, boolean debug) {
         String jwtFromCookie = jwtUtils.getJwtFromCookies(request);
         String jwtFromHeader = jwtUtils.getJwtFromHeader(request);
 
-        System.out.println("\n======= JWT DEBUG =======");
-        System.out.println("URL: " + path);
-        System.out.println("JWT from Cookie: " + jwtFromCookie);
-        System.out.println("JWT from Authorization Header: " + jwtFromHeader);
-        System.out.println("=========================\n");
+        // Never log the token itself, only where it came from
+        if (debug) {
+            logger.debug("JWT for {}: cookie {}, Authorization header {}", request.getRequestURI(),
+                    jwtFromCookie != null ? "present" : "absent",
+                    jwtFromHeader != null ? "present" : "absent");
+        }
 
         return jwtFromCookie != null ? jwtFromCookie : jwtFromHeader;
     }
@@ -0,0 +1,58 @@
+package EcommerceProject.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Catalog caches. Caffeine evicts by size (W-TinyLFU) and records hit/miss/eviction stats,
+ * which actuator publishes as cache.gets / cache.evictions under /actuator/metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // ProductDTO per productId, evicted precisely on every product mutation
+    public static final String PRODUCT_CACHE = "product";
+    // Public product listing pages, dropped on any product or category mutation
+    public static final String PRODUCT_PAGES_CACHE = "productPages";
+    // Public category listing pages, dropped on any category mutation
+    public static final String CATEGORY_PAGES_CACHE = "categoryPages";
+
+    @Value("${ecom.cache.productMaxSize:10000}")
+    private long productMaxSize;
+
+    @Value("${ecom.cache.pageMaxSize:2000}")
+    private long pageMaxSize;
+
+    @Value("${ecom.cache.pageTtlSeconds:30}")
+    private long pageTtlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCT_CACHE, Caffeine.newBuilder()
+                .maximumSize(productMaxSize)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PRODUCT_PAGES_CACHE, Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CATEGORY_PAGES_CACHE, Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build());
+        // Evictions issued inside a transaction only apply once it commits, so readers never re-cache stale rows
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,15 @@
+package EcommerceProject.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (outbox relay, rollups, reconcile, sweeps). Off with ecom.scheduling.enabled=false,
+ * e.g. in tests, which then call the jobs directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "ecom.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
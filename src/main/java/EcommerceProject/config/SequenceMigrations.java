@@ -0,0 +1,70 @@
+package EcommerceProject.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Creates the id sequences of tables that used to be IDENTITY before Hibernate starts. Hibernate's pooled
+ * optimizer hands out ids (start - allocationSize, start], so on a table that already has rows the sequence
+ * starts at max(id) + allocationSize; ddl-auto=update then finds it in place and leaves it alone. A sequence
+ * that already exists is never touched, so this is safe to run on every start and from every replica.
+ */
+@Configuration
+public class SequenceMigrations implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceMigrations.class);
+
+    record SequenceMigration(String sequence, String table, String idColumn, int allocationSize) {
+    }
+
+    static final List<SequenceMigration> MIGRATIONS = List.of(
+            new SequenceMigration("cart_items_seq", "cart_items", "cart_item_id", 50),
+            new SequenceMigration("order_items_seq", "order_items", "order_item_id", 50)
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    // The EntityManagerFactory (and with it Hibernate's schema update) waits for the migrations
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor sequenceMigrationsFirst() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SequenceMigrations.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        MIGRATIONS.forEach(migration -> migrate(jdbcTemplate, migration));
+    }
+
+    static void migrate(JdbcTemplate jdbcTemplate, SequenceMigration migration) {
+        // A fresh schema is left to Hibernate, which creates the sequence from 1
+        if (!exists(jdbcTemplate, "tables", "table", migration.table())
+                || exists(jdbcTemplate, "sequences", "sequence", migration.sequence())) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + migration.idColumn() + "), 0) FROM " + migration.table(), Long.class);
+        long start = maxId + migration.allocationSize();
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + migration.sequence()
+                + " START WITH " + start + " INCREMENT BY " + migration.allocationSize());
+        logger.info("Created sequence {} starting at {} past {}.{} = {}",
+                migration.sequence(), start, migration.table(), migration.idColumn(), maxId);
+    }
+
+    private static boolean exists(JdbcTemplate jdbcTemplate, String view, String kind, String name) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema." + view
+                + " WHERE LOWER(" + kind + "_name) = ? AND LOWER(" + kind + "_schema) = LOWER(CURRENT_SCHEMA)",
+                Integer.class, name);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,16 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Address;
+import EcommerceProject.payload.AddressDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = EcomMapperConfig.class)
+public interface AddressMapper {
+
+    AddressDTO toDto(Address address);
+
+    @Mapping(target = "addressId", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    Address toEntity(AddressDTO addressDTO);
+}
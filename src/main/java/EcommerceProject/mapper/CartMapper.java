@@ -0,0 +1,19 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Cart;
+import EcommerceProject.Model.CartItem;
+import EcommerceProject.payload.CartDTO;
+import EcommerceProject.payload.CartItemDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = EcomMapperConfig.class, uses = ProductMapper.class)
+public interface CartMapper {
+
+    @Mapping(target = "items", source = "cartItems")
+    CartDTO toDto(Cart cart);
+
+    // price is the product's list price, productPrice what the item was added at
+    @Mapping(target = "price", source = "product.price")
+    CartItemDTO toDto(CartItem cartItem);
+}
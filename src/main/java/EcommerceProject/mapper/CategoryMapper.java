@@ -0,0 +1,16 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Category;
+import EcommerceProject.payload.CategoryDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = EcomMapperConfig.class)
+public interface CategoryMapper {
+
+    CategoryDTO toDto(Category category);
+
+    @Mapping(target = "categoryId", ignore = true)
+    @Mapping(target = "products", ignore = true)
+    Category toEntity(CategoryDTO categoryDTO);
+}
@@ -0,0 +1,21 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.OrderItem;
+import EcommerceProject.Model.Payment;
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.payload.OrderItemDTO;
+import EcommerceProject.payload.PaymentDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = EcomMapperConfig.class, uses = ProductMapper.class)
+public interface OrderMapper {
+
+    @Mapping(target = "addressId", source = "address.addressId")
+    OrderDTO toDto(Order order);
+
+    OrderItemDTO toDto(OrderItem orderItem);
+
+    PaymentDTO toDto(Payment payment);
+}
@@ -0,0 +1,22 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.payload.ProductCartDTO;
+import EcommerceProject.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = EcomMapperConfig.class)
+public interface ProductMapper {
+
+    ProductDTO toDto(Product product);
+
+    ProductCartDTO toCartDto(Product product);
+
+    // Ids are generated, category and seller are set by the service
+    @Mapping(target = "productId", ignore = true)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "products", ignore = true)
+    Product toEntity(ProductDTO productDTO);
+}
@@ -0,0 +1,15 @@
+package EcommerceProject.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsBucketDTO {
+    private String key;                  // ISO date or hour, product, category or seller id
+    private long orders;
+    private long units;
+    private double revenue;
+}
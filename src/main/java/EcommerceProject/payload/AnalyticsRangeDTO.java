@@ -0,0 +1,21 @@
+package EcommerceProject.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRangeDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;                     // DAY or HOUR
+    private List<AnalyticsBucketDTO> series = new ArrayList<>();
+    private List<AnalyticsBucketDTO> topProducts = new ArrayList<>();
+    private List<AnalyticsBucketDTO> topCategories = new ArrayList<>();
+}
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,4 +14,14 @@ public class AnalyticsResponse {
     private String productCount;
     private String totalRevenue;
     private String totalOrders;
+    private List<AnalyticsBucketDTO> recentDays = new ArrayList<>();
+    private List<AnalyticsBucketDTO> topCategories = new ArrayList<>();
+    private List<AnalyticsBucketDTO> topSellers = new ArrayList<>();
+    private AnalyticsRangeDTO range;                // only when a date range is requested
+
+    public AnalyticsResponse(String productCount, String totalRevenue, String totalOrders) {
+        this.productCount = productCount;
+        this.totalRevenue = totalRevenue;
+        this.totalOrders = totalOrders;
+    }
 }
\ No newline at end of file
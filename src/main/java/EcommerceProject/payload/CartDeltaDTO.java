@@ -0,0 +1,18 @@
+package EcommerceProject.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDeltaDTO {
+    private Long cartId;            // ID of the cart that changed
+    private Double totalPrice;      // Cart total after the change
+    private CartItemDTO item;       // The changed line, quantity 0 when it was removed
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CartDTO cart;           // Whole cart, only filled in when the caller asks for it
+}
@@ -0,0 +1,19 @@
+package EcommerceProject.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPriceSyncDTO {
+    private Long productId;              // Product whose price is being pushed into carts
+    private String status;               // QUEUED, RUNNING, DONE or FAILED
+    private long cartItemsTotal;         // Cart lines holding the product when the job started
+    private long cartItemsUpdated;       // Cart lines repriced so far
+    private LocalDateTime queuedAt;
+    private LocalDateTime finishedAt;
+}
@@ -1,5 +1,6 @@
 package EcommerceProject.payload;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,5 +17,9 @@ public class CategoryResponse {
     private Long totalElements;
     private Integer totalpages;
     private boolean lastPage;
+
+    // Only set in cursor mode, pass it back as ?cursor= to fetch the next page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
 
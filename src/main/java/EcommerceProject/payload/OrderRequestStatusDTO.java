@@ -0,0 +1,25 @@
+package EcommerceProject.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRequestStatusDTO {
+    private Long requestId;              // Handle to poll at /api/order/requests/{requestId}
+    private String idempotencyKey;
+    private String status;               // QUEUED, PROCESSING, COMPLETED or FAILED
+    private Long orderId;
+    private String message;              // Why the order could not be placed
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    // The placed order, once COMPLETED
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private OrderDTO order;
+}
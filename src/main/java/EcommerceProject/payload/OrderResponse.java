@@ -1,5 +1,6 @@
 package EcommerceProject.payload;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,8 @@ public class OrderResponse {
     private Long totalElements;
     private Integer totalPages;
     private boolean lastPage;
+
+    // Only set in cursor mode, pass it back as ?cursor= to fetch the next page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
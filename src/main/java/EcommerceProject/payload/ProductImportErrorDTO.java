@@ -0,0 +1,14 @@
+package EcommerceProject.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+    private long row;                    // 1-based data row, header excluded
+    private String productName;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package EcommerceProject.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;     // more rows failed than are listed
+}
@@ -1,6 +1,7 @@
 package EcommerceProject.payload;
 
 import EcommerceProject.Model.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,4 +18,8 @@ public class ProductResponse {
     private Long totalElements;
     private Integer totalPages;
     private boolean lastPage;
+
+    // Only set in cursor mode, pass it back as ?cursor= to fetch the next page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
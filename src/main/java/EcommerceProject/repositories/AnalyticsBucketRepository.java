@@ -0,0 +1,62 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.AnalyticsBucket;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnalyticsBucketRepository extends JpaRepository<AnalyticsBucket, AnalyticsBucket.Key> {
+
+    // Runs in the checkout transaction; a concurrent checkout creating the same bucket waits instead of failing
+    @Modifying
+    @Query(value = "INSERT INTO analytics_buckets (dimension, bucket_key, slot, orders, units, revenue) " +
+            "VALUES (?1, ?2, ?3, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfMissing(String dimension, String bucketKey, int slot);
+
+    @Modifying
+    @Query("UPDATE AnalyticsBucket b SET b.orders = b.orders + 1, b.units = b.units + ?4, b.revenue = b.revenue + ?5 " +
+            "WHERE b.dimension = ?1 AND b.bucketKey = ?2 AND b.slot = ?3")
+    int addOrder(String dimension, String bucketKey, int slot, long units, double revenue);
+
+    // bucketKey, orders, units, revenue, summed over the slots
+    @Query("SELECT b.bucketKey, SUM(b.orders), SUM(b.units), SUM(b.revenue) FROM AnalyticsBucket b " +
+            "WHERE b.dimension = ?1 GROUP BY b.bucketKey ORDER BY SUM(b.revenue) DESC")
+    List<Object[]> findTopByRevenue(String dimension, Limit limit);
+
+    @Query("SELECT b.bucketKey, SUM(b.orders), SUM(b.units), SUM(b.revenue) FROM AnalyticsBucket b " +
+            "WHERE b.dimension = 'DAY' GROUP BY b.bucketKey ORDER BY b.bucketKey DESC")
+    List<Object[]> findLatestDays(Limit limit);
+
+    List<AnalyticsBucket> findByDimensionAndBucketKey(String dimension, String bucketKey);
+
+    // One-off rollups of the existing order history into slot 0, for a database that predates the buckets
+    @Modifying
+    @Query("INSERT INTO AnalyticsBucket (dimension, bucketKey, slot, orders, units, revenue) " +
+            "SELECT 'DAY', CAST(o.orderDate AS String), 0, COUNT(o), " +
+            "0, SUM(o.totalAmount) FROM Order o GROUP BY o.orderDate")
+    int backfillDays();
+
+    @Modifying
+    @Query("UPDATE AnalyticsBucket b SET b.units = (SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi " +
+            "WHERE CAST(oi.order.orderDate AS String) = b.bucketKey) WHERE b.dimension = 'DAY'")
+    int backfillDayUnits();
+
+    @Modifying
+    @Query("INSERT INTO AnalyticsBucket (dimension, bucketKey, slot, orders, units, revenue) " +
+            "SELECT 'CATEGORY', CAST(oi.product.category.categoryId AS String), 0, COUNT(DISTINCT oi.order), SUM(oi.quantity), " +
+            "SUM(oi.orderedProductPrice * oi.quantity) FROM OrderItem oi WHERE oi.product.category IS NOT NULL " +
+            "GROUP BY oi.product.category.categoryId")
+    int backfillCategories();
+
+    @Modifying
+    @Query("INSERT INTO AnalyticsBucket (dimension, bucketKey, slot, orders, units, revenue) " +
+            "SELECT 'SELLER', CAST(oi.product.user.userId AS String), 0, COUNT(DISTINCT oi.order), SUM(oi.quantity), " +
+            "SUM(oi.orderedProductPrice * oi.quantity) FROM OrderItem oi WHERE oi.product.user IS NOT NULL " +
+            "GROUP BY oi.product.user.userId")
+    int backfillSellers();
+}
@@ -0,0 +1,33 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.AnalyticsCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnalyticsCounterRepository extends JpaRepository<AnalyticsCounter, AnalyticsCounter.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (name, slot, counter_value) VALUES (?1, ?2, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int createIfMissing(String name, int slot);
+
+    @Modifying
+    @Query("UPDATE AnalyticsCounter c SET c.value = c.value + ?3 WHERE c.name = ?1 AND c.slot = ?2")
+    int add(String name, int slot, double delta);
+
+    // Both checkout counters in one statement
+    @Modifying
+    @Query("UPDATE AnalyticsCounter c SET c.value = c.value + " +
+            "CASE c.name WHEN 'orders' THEN 1 ELSE ?2 END " +
+            "WHERE c.slot = ?1 AND c.name IN ('orders', 'revenue')")
+    int addOrder(int slot, double revenue);
+
+    // name, total over all slots
+    @Query("SELECT c.name, SUM(c.value) FROM AnalyticsCounter c GROUP BY c.name")
+    List<Object[]> totals();
+}
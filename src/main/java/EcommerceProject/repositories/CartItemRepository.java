@@ -1,17 +1,33 @@
 package EcommerceProject.repositories;
 
 import EcommerceProject.Model.CartItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId = ?2")
     CartItem findCartItemByCartIdAndProductId(Long cartId, Long productId);
 
+    @Query("SELECT ci FROM CartItem ci WHERE ci.cart.cartId = ?1")
+    List<CartItem> findAllByCartId(Long cartId);
+
+    // 0 when the cart already has a line for the product, e.g. from a concurrent first add
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, product_price, discount) " +
+            "VALUES (nextval('cart_items_seq'), ?1, ?2, ?3, ?4, ?5) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfMissing(Long cartId, Long productId, int quantity, double productPrice, double discount);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = ci.quantity + ?3 WHERE ci.cart.cartId = ?1 AND ci.product.productId = ?2")
+    int addQuantity(Long cartId, Long productId, int quantity);
+
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
@@ -19,4 +35,21 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = ?1")
     void deleteAllByCartId(Long cartId);
+
+    long countByProductProductId(Long productId);
+
+    @Query("SELECT ci.cartItemId FROM CartItem ci WHERE ci.product.productId = ?1 AND ci.cartItemId > ?2 ORDER BY ci.cartItemId")
+    List<Long> findIdsByProductId(Long productId, Long afterCartItemId, Limit limit);
+
+    // Copies the product's current price and discount, so a late chunk never writes a stale price
+    @Modifying
+    @Query("UPDATE CartItem ci SET " +
+            "ci.productPrice = (SELECT p.specialPrice FROM Product p WHERE p.productId = ?1), " +
+            "ci.discount = (SELECT p.discount FROM Product p WHERE p.productId = ?1) " +
+            "WHERE ci.cartItemId IN ?2")
+    int repriceCartItems(Long productId, List<Long> cartItemIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cartItemId IN ?1")
+    int deleteAllByCartItemIds(List<Long> cartItemIds);
 }
@@ -0,0 +1,19 @@
+package EcommerceProject.repositories;
+
+/**
+ * One product line of a cart as a CartStore sees it. cartItemId is null until the line is stored in the database.
+ */
+public record CartLine(Long cartItemId, Long productId, int quantity, double productPrice, double discount) {
+
+    public double amount() {
+        return productPrice * quantity;
+    }
+
+    public CartLine withQuantity(int newQuantity) {
+        return new CartLine(cartItemId, productId, newQuantity, productPrice, discount);
+    }
+
+    public CartLine withCartItemId(Long newCartItemId) {
+        return new CartLine(newCartItemId, productId, quantity, productPrice, discount);
+    }
+}
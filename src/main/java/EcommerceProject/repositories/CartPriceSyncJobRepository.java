@@ -0,0 +1,42 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.CartPriceSyncJob;
+import EcommerceProject.Model.CartPriceSyncStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CartPriceSyncJobRepository extends JpaRepository<CartPriceSyncJob, Long> {
+
+    // Two instances queueing the same product both succeed, the update below then serializes them on the row
+    @Modifying
+    @Query(value = "INSERT INTO cart_price_sync_jobs (product_id, sync_run, cart_items_total, cart_items_updated) " +
+            "VALUES (?1, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfMissing(Long productId);
+
+    @Modifying
+    @Query("UPDATE CartPriceSyncJob j SET j.run = j.run + 1, j.status = EcommerceProject.Model.CartPriceSyncStatus.QUEUED, " +
+            "j.cartItemsTotal = 0, j.cartItemsUpdated = 0, j.queuedAt = ?2, j.finishedAt = null WHERE j.productId = ?1")
+    int queue(Long productId, LocalDateTime queuedAt);
+
+    @Query("SELECT j.run FROM CartPriceSyncJob j WHERE j.productId = ?1")
+    long findRun(Long productId);
+
+    // All of these return 0 once the product has been queued again
+    @Modifying
+    @Query("UPDATE CartPriceSyncJob j SET j.status = EcommerceProject.Model.CartPriceSyncStatus.RUNNING, " +
+            "j.cartItemsTotal = ?3 WHERE j.productId = ?1 AND j.run = ?2")
+    int markRunning(Long productId, long run, long cartItemsTotal);
+
+    @Modifying
+    @Query("UPDATE CartPriceSyncJob j SET j.cartItemsUpdated = j.cartItemsUpdated + ?3 WHERE j.productId = ?1 AND j.run = ?2")
+    int addUpdated(Long productId, long run, long cartItems);
+
+    @Modifying
+    @Query("UPDATE CartPriceSyncJob j SET j.status = ?3, j.finishedAt = ?4 WHERE j.productId = ?1 AND j.run = ?2")
+    int finish(Long productId, long run, CartPriceSyncStatus status, LocalDateTime finishedAt);
+}
@@ -2,6 +2,7 @@ package EcommerceProject.repositories;
 
 import EcommerceProject.Model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -12,8 +13,38 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
     Cart findCartByEmail(String email);
 
-    @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.productId = ?1")
-    List<Cart> findCartsByProductId(Long productId);
+    @Query("SELECT c.cartId FROM Cart c WHERE c.user.email = ?1")
+    Long findCartIdByEmail(String email);
 
+    @Query("SELECT c.cartId FROM Cart c WHERE c.user.userId = ?1")
+    Long findCartIdByUserId(Long userId);
 
+    @Query("SELECT c.user.userId FROM Cart c WHERE c.cartId = ?1")
+    Long findUserIdByCartId(Long cartId);
+
+    @Query("SELECT c.totalPrice FROM Cart c WHERE c.cartId = ?1")
+    Double findTotalPriceByCartId(Long cartId);
+
+    // Applies a price x quantity delta in place instead of re-summing every line.
+    // Managed Cart entities keep the old total; read the column or refresh the cart afterwards
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice + ?2 WHERE c.cartId = ?1")
+    int addToTotalPrice(Long cartId, double amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = ?2 WHERE c.cartId = ?1")
+    int updateTotalPrice(Long cartId, double totalPrice);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = " +
+            "(SELECT COALESCE(SUM(ci.productPrice * ci.quantity), 0) FROM CartItem ci WHERE ci.cart.cartId = c.cartId) " +
+            "WHERE c.cartId IN (SELECT line.cart.cartId FROM CartItem line WHERE line.cartItemId IN ?1)")
+    int recomputeTotalsForCartItems(List<Long> cartItemIds);
+
+    // Takes each line's amount off its cart total, the lines themselves are deleted separately
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice - " +
+            "(SELECT COALESCE(SUM(ci.productPrice * ci.quantity), 0) FROM CartItem ci WHERE ci.cart.cartId = c.cartId AND ci.cartItemId IN ?1) " +
+            "WHERE c.cartId IN (SELECT line.cart.cartId FROM CartItem line WHERE line.cartItemId IN ?1)")
+    int subtractCartItemsFromTotals(List<Long> cartItemIds);
 }
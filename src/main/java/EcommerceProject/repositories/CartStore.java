@@ -0,0 +1,40 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Cart;
+
+import java.util.Collection;
+
+/**
+ * Where the lines and total of a user's cart live while it is being edited.
+ * JpaCartStore writes every change to the carts tables; InMemoryCartStore (ecom.cart.store=memory)
+ * keeps active carts in process and writes them back at checkout or once they go idle.
+ */
+public interface CartStore {
+
+    // Null when the user has no cart and create is false
+    Long findCartId(Long userId, boolean create);
+
+    // Null when the product is not in the cart
+    CartLine findLine(Long cartId, Long productId);
+
+    // Stores the line (quantity 0 removes it), moves the total by the change against previous and returns the stored line
+    CartLine saveLine(Long cartId, CartLine previous, CartLine updated);
+
+    void replaceLines(Long cartId, Collection<CartLine> lines);
+
+    double getTotalPrice(Long cartId);
+
+    // Full cart with its items, null when there is none
+    Cart loadCart(Long cartId);
+
+    // Makes sure the database holds the latest state of the cart, called before checkout reads it
+    default void materialize(Long cartId) {
+    }
+
+    // Hooks for carts held outside the database; the database itself is updated by the bulk jobs
+    default void productRepriced(Long productId, double specialPrice, double discount) {
+    }
+
+    default void productRemoved(Long productId) {
+    }
+}
@@ -0,0 +1,328 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Cart;
+import EcommerceProject.Model.CartItem;
+import EcommerceProject.Model.Product;
+import EcommerceProject.service.InstanceLeaseService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps active carts in process so browsing and editing a cart costs no cart_items writes.
+ * A cart is loaded from the database on first touch and written back (write-behind) when it has been
+ * idle for ecom.cart.idleSeconds, when the store is full, at checkout, or on shutdown.
+ * Only the cart row itself is created up front, so cart ids stay stable for the API.
+ * Carts held here are invisible to other instances, so this store takes the cart-store instance lease at
+ * startup and the application does not start while another live instance holds it.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "ecom.cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    @Autowired
+    private JpaCartStore jpaCartStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InstanceLeaseService instanceLeaseService;
+
+    @Value("${ecom.cart.idleSeconds:1800}")
+    private long idleSeconds;
+
+    @Value("${ecom.cart.maxActiveCarts:100000}")
+    private long maxActiveCarts;
+
+    private Cache<Long, ActiveCart> carts;
+
+    // Evicted carts whose write has not finished yet; a returning user picks them up from here
+    private final Map<Long, ActiveCart> pendingWrites = new ConcurrentHashMap<>();
+
+    static class ActiveCart {
+        private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+        private double totalPrice;
+        private long version;
+        private long writtenVersion;
+
+        private boolean dirty() {
+            return version != writtenVersion;
+        }
+
+        private void add(CartLine line) {
+            lines.put(line.productId(), line);
+            totalPrice += line.amount();
+        }
+
+        private void remove(Long productId) {
+            CartLine line = lines.remove(productId);
+            if (line != null) {
+                totalPrice -= line.amount();
+            }
+        }
+    }
+
+    public InMemoryCartStore() {
+    }
+
+    InMemoryCartStore(JpaCartStore jpaCartStore, ProductRepository productRepository,
+                      Duration idleTimeout, long maxActiveCarts, Ticker ticker, Executor executor) {
+        this.jpaCartStore = jpaCartStore;
+        this.productRepository = productRepository;
+        this.maxActiveCarts = maxActiveCarts;
+        this.carts = buildCache(idleTimeout, ticker, executor);
+    }
+
+    @PostConstruct
+    public void init() {
+        instanceLeaseService.acquire("cart-store");
+        carts = buildCache(Duration.ofSeconds(idleSeconds), Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    private Cache<Long, ActiveCart> buildCache(Duration idleTimeout, Ticker ticker, Executor executor) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxActiveCarts)
+                .expireAfterAccess(idleTimeout)
+                .ticker(ticker)
+                .executor(executor)
+                .scheduler(Scheduler.systemScheduler())
+                .<Long, ActiveCart>removalListener((cartId, cart, cause) -> {
+                    // Explicit removals come from materialize, which writes the cart itself
+                    if (cause != RemovalCause.EXPLICIT && cause != RemovalCause.REPLACED && cart != null && cart.dirty()) {
+                        pendingWrites.put(cartId, cart);
+                        writeBehind(cartId, cart);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Long findCartId(Long userId, boolean create) {
+        return jpaCartStore.findCartId(userId, create);
+    }
+
+    @Override
+    public CartLine findLine(Long cartId, Long productId) {
+        ActiveCart cart = active(cartId);
+        synchronized (cart) {
+            return cart.lines.get(productId);
+        }
+    }
+
+    @Override
+    public CartLine saveLine(Long cartId, CartLine previous, CartLine updated) {
+        ActiveCart cart = active(cartId);
+        synchronized (cart) {
+            cart.remove(updated.productId());
+            if (updated.quantity() > 0) {
+                cart.add(updated);
+            }
+            cart.version++;
+        }
+        return updated;
+    }
+
+    @Override
+    public void replaceLines(Long cartId, Collection<CartLine> lines) {
+        ActiveCart cart = active(cartId);
+        synchronized (cart) {
+            cart.lines.clear();
+            cart.totalPrice = 0.00;
+            lines.forEach(cart::add);
+            cart.version++;
+        }
+    }
+
+    @Override
+    public double getTotalPrice(Long cartId) {
+        ActiveCart cart = active(cartId);
+        synchronized (cart) {
+            return cart.totalPrice;
+        }
+    }
+
+    @Override
+    public Cart loadCart(Long cartId) {
+        ActiveCart activeCart = active(cartId);
+        List<CartLine> lines;
+        synchronized (activeCart) {
+            lines = new ArrayList<>(activeCart.lines.values());
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(lines.stream().map(CartLine::productId).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        Cart cart = new Cart();
+        cart.setCartId(cartId);
+        synchronized (activeCart) {
+            // Lines of products deleted since the cart was loaded are dropped here
+            for (CartLine line : lines) {
+                if (!products.containsKey(line.productId()) && activeCart.lines.containsKey(line.productId())) {
+                    activeCart.remove(line.productId());
+                    activeCart.version++;
+                }
+            }
+            cart.setTotalPrice(activeCart.totalPrice);
+        }
+        for (CartLine line : lines) {
+            Product product = products.get(line.productId());
+            if (product != null) {
+                cart.getCartItems().add(new CartItem(line.cartItemId(), cart, product,
+                        line.quantity(), line.discount(), line.productPrice()));
+            }
+        }
+        return cart;
+    }
+
+    @Override
+    public void materialize(Long cartId) {
+        ActiveCart cart = carts.asMap().remove(cartId);
+        if (cart == null) {
+            cart = pendingWrites.get(cartId);
+        }
+        if (cart == null) {
+            return;
+        }
+        if (!cart.dirty()) {
+            // The database already has it; a pending copy would outlive the checkout
+            pendingWrites.remove(cartId, cart);
+            return;
+        }
+
+        // Written in the caller's transaction; if checkout rolls back the cart goes back into memory
+        write(cartId, cart);
+        ActiveCart materialized = cart;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        // Otherwise active() would serve the ordered lines again and flush() would write them back
+                        pendingWrites.remove(cartId, materialized);
+                    } else {
+                        synchronized (materialized) {
+                            materialized.writtenVersion = -1;
+                        }
+                        carts.asMap().putIfAbsent(cartId, materialized);
+                    }
+                }
+            });
+        } else {
+            pendingWrites.remove(cartId, materialized);
+        }
+    }
+
+    @Override
+    public void productRepriced(Long productId, double specialPrice, double discount) {
+        for (ActiveCart cart : activeCarts()) {
+            synchronized (cart) {
+                CartLine line = cart.lines.get(productId);
+                if (line != null) {
+                    cart.remove(productId);
+                    cart.add(new CartLine(line.cartItemId(), productId, line.quantity(), specialPrice, discount));
+                    cart.version++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        for (ActiveCart cart : activeCarts()) {
+            synchronized (cart) {
+                if (cart.lines.containsKey(productId)) {
+                    cart.remove(productId);
+                    cart.version++;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        carts.asMap().forEach((cartId, cart) -> {
+            if (cart.dirty()) {
+                writeBehind(cartId, cart);
+            }
+        });
+        pendingWrites.forEach((cartId, cart) -> {
+            if (cart.dirty()) {
+                writeBehind(cartId, cart);
+            }
+        });
+    }
+
+    long activeCount() {
+        carts.cleanUp();
+        return carts.estimatedSize();
+    }
+
+    private Collection<ActiveCart> activeCarts() {
+        List<ActiveCart> all = new ArrayList<>(carts.asMap().values());
+        all.addAll(pendingWrites.values());
+        return all;
+    }
+
+    private ActiveCart active(Long cartId) {
+        return carts.get(cartId, id -> {
+            ActiveCart pending = pendingWrites.get(id);
+            return pending != null ? pending : load(id);
+        });
+    }
+
+    private ActiveCart load(Long cartId) {
+        ActiveCart cart = new ActiveCart();
+        jpaCartStore.findLines(cartId).forEach(line -> cart.lines.put(line.productId(), line));
+        cart.totalPrice = jpaCartStore.getTotalPrice(cartId);
+        return cart;
+    }
+
+    private void writeBehind(Long cartId, ActiveCart cart) {
+        try {
+            write(cartId, cart);
+            pendingWrites.remove(cartId, cart);
+        } catch (RuntimeException e) {
+            // Stays pending, so the next touch or the shutdown flush tries again
+            logger.error("Could not write cart {} back to the database: {}", cartId, e.getMessage());
+        }
+    }
+
+    private void write(Long cartId, ActiveCart cart) {
+        List<CartLine> lines;
+        long version;
+        synchronized (cart) {
+            lines = new ArrayList<>(cart.lines.values());
+            version = cart.version;
+        }
+        jpaCartStore.replaceLines(cartId, lines);
+        synchronized (cart) {
+            cart.writtenVersion = version;
+        }
+    }
+}
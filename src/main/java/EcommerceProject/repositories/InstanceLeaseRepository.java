@@ -0,0 +1,27 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.InstanceLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InstanceLeaseRepository extends JpaRepository<InstanceLease, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO instance_leases (name) VALUES (?1) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfMissing(String name);
+
+    // 0 while another instance holds a lease that has not expired
+    @Modifying
+    @Query("UPDATE InstanceLease l SET l.holder = ?2, l.expiresAt = ?4 " +
+            "WHERE l.name = ?1 AND (l.holder IS NULL OR l.holder = ?2 OR l.expiresAt < ?3)")
+    int claim(String name, String holder, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE InstanceLease l SET l.holder = null, l.expiresAt = null WHERE l.name = ?1 AND l.holder = ?2")
+    int release(String name, String holder);
+}
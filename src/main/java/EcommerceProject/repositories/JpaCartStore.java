@@ -0,0 +1,141 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Cart;
+import EcommerceProject.Model.CartItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Default cart store: every change is written straight to carts / cart_items as a single-line delta.
+ */
+@Repository
+@Transactional
+public class JpaCartStore implements CartStore {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Long findCartId(Long userId, boolean create) {
+        Long cartId = cartRepository.findCartIdByUserId(userId);
+        if (cartId != null || !create) {
+            return cartId;
+        }
+
+        Cart cart = new Cart();
+        cart.setTotalPrice(0.00);
+        cart.setUser(userRepository.getReferenceById(userId));
+        return cartRepository.save(cart).getCartId();
+    }
+
+    @Override
+    public CartLine findLine(Long cartId, Long productId) {
+        CartItem cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cartId, productId);
+        return cartItem != null ? toLine(cartItem) : null;
+    }
+
+    public List<CartLine> findLines(Long cartId) {
+        return cartItemRepository.findAllByCartId(cartId).stream()
+                .map(this::toLine)
+                .toList();
+    }
+
+    @Override
+    public CartLine saveLine(Long cartId, CartLine previous, CartLine updated) {
+        // No select when findLine loaded the line in the caller's transaction
+        CartItem cartItem = previous != null && previous.cartItemId() != null
+                ? cartItemRepository.findById(previous.cartItemId()).orElse(null)
+                : null;
+        // A line removed since it was read, e.g. by a product delete, no longer counts in the total
+        double totalChange = updated.amount() - (cartItem != null ? previous.amount() : 0);
+
+        if (cartItem != null) {
+            if (updated.quantity() <= 0) {
+                cartItemRepository.delete(cartItem);
+            } else {
+                cartItem.setQuantity(updated.quantity());
+                cartItem.setProductPrice(updated.productPrice());
+                cartItem.setDiscount(updated.discount());
+            }
+        } else if (updated.quantity() > 0) {
+            // Two first adds of the same product race on (cart_id, product_id); the second adds to the first one's line
+            if (cartItemRepository.insertIfMissing(cartId, updated.productId(), updated.quantity(),
+                    updated.productPrice(), updated.discount()) == 0) {
+                cartItemRepository.addQuantity(cartId, updated.productId(), updated.quantity());
+            }
+            cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cartId, updated.productId());
+            // The quantity is added at the price of the line that was stored
+            totalChange = cartItem.getProductPrice() * updated.quantity();
+            updated = toLine(cartItem);
+        }
+
+        cartRepository.addToTotalPrice(cartId, totalChange);
+        return updated;
+    }
+
+    @Override
+    public void replaceLines(Long cartId, Collection<CartLine> lines) {
+        cartItemRepository.deleteAllByCartId(cartId);
+
+        double totalPrice = 0.00;
+        List<CartItem> cartItems = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            totalPrice += line.amount();
+            cartItems.add(toCartItem(cartId, line));
+        }
+
+        // Inserts go out in JDBC batches when the total update flushes them
+        cartItemRepository.saveAll(cartItems);
+        cartRepository.updateTotalPrice(cartId, totalPrice);
+    }
+
+    @Override
+    public double getTotalPrice(Long cartId) {
+        Double totalPrice = cartRepository.findTotalPriceByCartId(cartId);
+        return totalPrice != null ? totalPrice : 0.00;
+    }
+
+    @Override
+    public Cart loadCart(Long cartId) {
+        Cart cart = cartRepository.findById(cartId).orElse(null);
+        // The cart may have been loaded before saveLine moved its total and lines with bulk statements
+        if (cart != null) {
+            entityManager.refresh(cart);
+        }
+        return cart;
+    }
+
+    private CartLine toLine(CartItem cartItem) {
+        return new CartLine(cartItem.getCartItemId(), cartItem.getProduct().getProductId(),
+                cartItem.getQuantity(), cartItem.getProductPrice(), cartItem.getDiscount());
+    }
+
+    private CartItem toCartItem(Long cartId, CartLine line) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cartRepository.getReferenceById(cartId));
+        cartItem.setProduct(productRepository.getReferenceById(line.productId()));
+        cartItem.setQuantity(line.quantity());
+        cartItem.setProductPrice(line.productPrice());
+        cartItem.setDiscount(line.discount());
+        return cartItem;
+    }
+}
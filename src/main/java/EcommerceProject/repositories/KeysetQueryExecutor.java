@@ -0,0 +1,161 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Exception.APIException;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.query.SortDirection;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaExpression;
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.NullPrecedence;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Seek pagination: instead of OFFSET the query continues after the (sortKey, id) pair of the
+ * previous page, which the client passes back as an opaque cursor. Rows with a null sort key
+ * always come last, ids break ties in the same direction as the sort key. Only a nullable sort key
+ * gets the extra "or key is null" arm; for the others the predicate is a plain range on (key, id).
+ */
+@Repository
+public class KeysetQueryExecutor {
+
+    private static final String NULL_VALUE = "\u0000";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> KeysetSlice<T> findSlice(Class<T> entityClass, String idAttribute, Specification<T> spec,
+                                        String sortBy, boolean ascending, String cursor, int pageSize) {
+        return findSlice(entityClass, entityClass, (root, cb) -> root, idAttribute, spec, sortBy, ascending, cursor, pageSize);
+    }
+
+    public <T, R> KeysetSlice<R> findSlice(Class<T> entityClass, Class<R> resultClass,
+                                           BiFunction<Root<T>, CriteriaBuilder, Selection<R>> selection,
+                                           String idAttribute, Specification<T> spec,
+                                           String sortBy, boolean ascending, String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new APIException("Page size must be at least 1");
+        }
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultClass);
+        Root<T> root = query.from(entityClass);
+        query.select(selection.apply(root, cb));
+
+        Path<Object> sortKey;
+        try {
+            sortKey = root.get(sortBy);
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Cannot sort " + entityClass.getSimpleName() + " by " + sortBy);
+        }
+        Path<Long> id = root.get(idAttribute);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            predicates.add(seekPredicate(cb, sortKey, id, ascending, nullable(entityClass, sortBy),
+                    decode(cursor, sortBy, sortKey.getJavaType())));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        SortDirection direction = ascending ? SortDirection.ASCENDING : SortDirection.DESCENDING;
+        JpaOrder bySortKey = cb.sort((JpaExpression<?>) sortKey, direction, NullPrecedence.LAST);
+        JpaOrder byId = cb.sort((JpaExpression<?>) id, direction);
+        query.orderBy(bySortKey, byId);
+
+        // One extra row tells us whether there is a next page without running a COUNT
+        List<R> rows = entityManager.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        boolean lastPage = rows.size() <= pageSize;
+        List<R> content = lastPage ? rows : rows.subList(0, pageSize);
+        String nextCursor = null;
+        if (!lastPage) {
+            var lastRow = PropertyAccessorFactory.forBeanPropertyAccess(content.get(content.size() - 1));
+            nextCursor = encode(sortBy, lastRow.getPropertyValue(sortBy), lastRow.getPropertyValue(idAttribute));
+        }
+        return new KeysetSlice<>(content, nextCursor, lastPage);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPredicate(CriteriaBuilder cb, Path<Object> sortKey, Path<Long> id, boolean ascending,
+                                    boolean nullable, Cursor position) {
+        Predicate afterId = ascending ? cb.greaterThan(id, position.id()) : cb.lessThan(id, position.id());
+        if (position.value() == null) {
+            return cb.and(cb.isNull(sortKey), afterId);
+        }
+        Expression<Comparable> key = (Expression<Comparable>) (Expression<?>) sortKey;
+        Comparable value = position.value();
+        Predicate fromKey = ascending ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value);
+        Predicate afterKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        // key >= v AND (key > v OR id > lastId): the leading bound lets the (key, id) index start at the cursor
+        Predicate seek = cb.and(fromKey, cb.or(afterKey, afterId));
+        // The null arm would turn the whole predicate into an OR chain, so only nullable keys get it
+        return nullable ? cb.or(seek, cb.isNull(sortKey)) : seek;
+    }
+
+    boolean nullable(Class<?> entityClass, String attributeName) {
+        Attribute<?, ?> attribute = entityManager.getMetamodel().entity(entityClass).getAttribute(attributeName);
+        if (attribute.getJavaType().isPrimitive()) {
+            return false;
+        }
+        // Hibernate reports @Column(nullable = false) attributes as optional, so read the mapping as well
+        if (attribute.getJavaMember() instanceof Field field && field.isAnnotationPresent(Column.class)
+                && !field.getAnnotation(Column.class).nullable()) {
+            return false;
+        }
+        return !(attribute instanceof SingularAttribute<?, ?> singular) || (!singular.isId() && singular.isOptional());
+    }
+
+    private record Cursor(Comparable<?> value, Long id) {
+    }
+
+    private static String encode(String sortBy, Object value, Object id) {
+        String raw = sortBy + "\n" + (value == null ? NULL_VALUE : value.toString()) + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor, String sortBy, Class<?> sortType) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", -1);
+            if (parts.length != 3 || !parts[0].equals(sortBy)) {
+                throw new APIException("Cursor does not belong to a listing sorted by " + sortBy);
+            }
+            Comparable<?> value = parts[1].equals(NULL_VALUE) ? null : parseValue(parts[1], sortType);
+            return new Cursor(value, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new APIException("Invalid cursor");
+        }
+    }
+
+    private static Comparable<?> parseValue(String value, Class<?> type) {
+        if (type == Long.class || type == long.class) return Long.valueOf(value);
+        if (type == Integer.class || type == int.class) return Integer.valueOf(value);
+        if (type == Double.class || type == double.class) return Double.valueOf(value);
+        if (type == Boolean.class || type == boolean.class) return Boolean.valueOf(value);
+        if (type == LocalDate.class) return LocalDate.parse(value);
+        if (type == String.class) return value;
+        throw new APIException("Cursor pagination is not supported for " + type.getSimpleName() + " columns");
+    }
+}
@@ -0,0 +1,7 @@
+package EcommerceProject.repositories;
+
+import java.util.List;
+
+// One page of a keyset (seek) query; nextCursor is null on the last page
+public record KeysetSlice<T>(List<T> content, String nextCursor, boolean lastPage) {
+}
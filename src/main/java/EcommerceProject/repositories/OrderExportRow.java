@@ -0,0 +1,19 @@
+package EcommerceProject.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Flat order columns for exports; scalar rows never enter the persistence context
+public interface OrderExportRow {
+    Long getOrderId();
+    String getEmail();
+    LocalDate getOrderDate();
+    LocalDateTime getCreatedAt();
+    String getOrderStatus();
+    Double getTotalAmount();
+    Long getAddressId();
+    String getPaymentMethod();
+    String getPgName();
+    String getPgPaymentId();
+    String getPgStatus();
+}
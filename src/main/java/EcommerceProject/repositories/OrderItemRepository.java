@@ -2,8 +2,33 @@ package EcommerceProject.repositories;
 
 import EcommerceProject.Model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem,Long> {
+
+    boolean existsByProductProductId(Long productId);
+
+    // orderDate, hour, units for the given orders
+    @Query("SELECT oi.order.orderDate, COALESCE(HOUR(oi.order.createdAt), 0), SUM(oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.orderId IN ?1 " +
+            "GROUP BY oi.order.orderDate, COALESCE(HOUR(oi.order.createdAt), 0)")
+    List<Object[]> rollupUnitsByHour(Collection<Long> orderIds);
+
+    // orderDate, productId, orders, units, revenue for the given orders
+    @Query("SELECT oi.order.orderDate, oi.product.productId, COUNT(DISTINCT oi.order.orderId), SUM(oi.quantity), " +
+            "SUM(oi.orderedProductPrice * oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.orderId IN ?1 GROUP BY oi.order.orderDate, oi.product.productId")
+    List<Object[]> rollupProducts(Collection<Long> orderIds);
+
+    // orderDate, categoryId, orders, units, revenue for the given orders
+    @Query("SELECT oi.order.orderDate, oi.product.category.categoryId, COUNT(DISTINCT oi.order.orderId), SUM(oi.quantity), " +
+            "SUM(oi.orderedProductPrice * oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.orderId IN ?1 AND oi.product.category IS NOT NULL " +
+            "GROUP BY oi.order.orderDate, oi.product.category.categoryId")
+    List<Object[]> rollupCategories(Collection<Long> orderIds);
 }
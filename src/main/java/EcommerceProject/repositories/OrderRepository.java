@@ -1,12 +1,42 @@
 package EcommerceProject.repositories;
 
 import EcommerceProject.Model.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o")
     Double getTotalRevenue();
+
+    // Served from the seller_orders index; the count never touches orders
+    @Query(value = "SELECT o FROM Order o WHERE o.orderId IN (SELECT so.orderId FROM SellerOrder so WHERE so.sellerId = ?1)",
+            countQuery = "SELECT COUNT(so) FROM SellerOrder so WHERE so.sellerId = ?1")
+    Page<Order> findSellerOrders(Long sellerId, Pageable pageable);
+
+    // orderDate, hour, orders, revenue for the given orders; those from before createdAt was recorded count as midnight
+    @Query("SELECT o.orderDate, COALESCE(HOUR(o.createdAt), 0), COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+            "WHERE o.orderId IN ?1 GROUP BY o.orderDate, COALESCE(HOUR(o.createdAt), 0)")
+    List<Object[]> rollupHours(Collection<Long> orderIds);
+
+    // Forward-only cursor read fetchSize rows at a time; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.orderId AS orderId, o.email AS email, o.orderDate AS orderDate, o.createdAt AS createdAt, " +
+            "o.orderStatus AS orderStatus, o.totalAmount AS totalAmount, a.addressId AS addressId, " +
+            "p.paymentMethod AS paymentMethod, p.pgName AS pgName, p.pgPaymentId AS pgPaymentId, p.pgStatus AS pgStatus " +
+            "FROM Order o LEFT JOIN o.address a LEFT JOIN o.payment p ORDER BY o.orderId")
+    Stream<OrderExportRow> streamForExport();
 }
@@ -0,0 +1,50 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.OrderRequest;
+import EcommerceProject.Model.OrderRequestStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderRequestRepository extends JpaRepository<OrderRequest, Long> {
+
+    Optional<OrderRequest> findByEmailAndIdempotencyKey(String email, String idempotencyKey);
+
+    Optional<OrderRequest> findByRequestIdAndEmail(Long requestId, String email);
+
+    @Query("SELECT r.requestId FROM OrderRequest r WHERE r.status IN ?1 ORDER BY r.requestId")
+    List<Long> findIdsByStatusIn(Collection<OrderRequestStatus> statuses);
+
+    // Leases a whole batch in one statement; ids another instance took first are left alone
+    @Modifying
+    @Query("UPDATE OrderRequest r SET r.status = EcommerceProject.Model.OrderRequestStatus.PROCESSING, " +
+            "r.owner = ?2, r.leaseExpiresAt = ?3 " +
+            "WHERE r.requestId IN ?1 AND r.status = EcommerceProject.Model.OrderRequestStatus.QUEUED")
+    int markProcessing(Collection<Long> requestIds, String owner, LocalDateTime leaseExpiresAt);
+
+    // Renews the lease in the transaction placing the order, which keeps the row locked until it commits
+    @Modifying
+    @Query("UPDATE OrderRequest r SET r.leaseExpiresAt = ?3 WHERE r.requestId = ?1 AND r.owner = ?2 " +
+            "AND r.status = EcommerceProject.Model.OrderRequestStatus.PROCESSING")
+    int renewLease(Long requestId, String owner, LocalDateTime leaseExpiresAt);
+
+    @Modifying
+    @Query("UPDATE OrderRequest r SET r.status = ?3, r.orderId = ?4, r.message = ?5, r.finishedAt = ?6, " +
+            "r.leaseExpiresAt = null WHERE r.requestId = ?1 AND r.owner = ?2 " +
+            "AND r.status = EcommerceProject.Model.OrderRequestStatus.PROCESSING")
+    int finish(Long requestId, String owner, OrderRequestStatus status, Long orderId, String message, LocalDateTime finishedAt);
+
+    // An expired lease means its instance stopped before committing an order, so the request can run again
+    @Modifying
+    @Query("UPDATE OrderRequest r SET r.status = EcommerceProject.Model.OrderRequestStatus.QUEUED, " +
+            "r.owner = null, r.leaseExpiresAt = null " +
+            "WHERE r.status = EcommerceProject.Model.OrderRequestStatus.PROCESSING AND r.leaseExpiresAt < ?1")
+    int requeueExpired(LocalDateTime now);
+}
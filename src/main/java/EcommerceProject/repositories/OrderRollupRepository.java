@@ -0,0 +1,22 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, LocalDateTime> {
+
+    @Query("SELECT r FROM OrderRollup r WHERE r.day BETWEEN ?1 AND ?2 ORDER BY r.bucketStart")
+    List<OrderRollup> findHours(LocalDate from, LocalDate to);
+
+    // day, orders, units, revenue
+    @Query("SELECT r.day, SUM(r.orders), SUM(r.units), SUM(r.revenue) FROM OrderRollup r " +
+            "WHERE r.day BETWEEN ?1 AND ?2 GROUP BY r.day ORDER BY r.day")
+    List<Object[]> findDays(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,33 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.PendingRollup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PendingRollupRepository extends JpaRepository<PendingRollup, Long> {
+
+    // Plain insert; save() would look the id up first
+    @Modifying
+    @Query(value = "INSERT INTO pending_rollups (order_id) VALUES (?1)", nativeQuery = true)
+    int add(Long orderId);
+
+    @Query("SELECT p.orderId FROM PendingRollup p ORDER BY p.orderId")
+    List<Long> findOrderIds(Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM PendingRollup p WHERE p.orderId IN ?1")
+    int deleteByOrderIds(Collection<Long> orderIds);
+
+    // Queues orders placed before the table existed, skipping those checkouts have already queued
+    @Modifying
+    @Query("INSERT INTO PendingRollup (orderId) SELECT o.orderId FROM Order o " +
+            "WHERE NOT EXISTS (SELECT 1 FROM PendingRollup p WHERE p.orderId = o.orderId)")
+    int backfill();
+}
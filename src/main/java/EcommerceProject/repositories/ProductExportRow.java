@@ -0,0 +1,16 @@
+package EcommerceProject.repositories;
+
+// Flat product columns for exports; scalar rows never enter the persistence context
+public interface ProductExportRow {
+    Long getProductId();
+    String getProductName();
+    String getDescription();
+    Integer getQuantity();
+    Double getPrice();
+    Double getDiscount();
+    Double getSpecialPrice();
+    String getImage();
+    Long getCategoryId();
+    String getCategoryName();
+    Long getSellerId();
+}
@@ -1,21 +1,66 @@
 package EcommerceProject.repositories;
 
-import EcommerceProject.Model.Category;
 import EcommerceProject.Model.Product;
-import EcommerceProject.Model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
 
-    Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
+    @Query("SELECT p.productId AS productId, p.productName AS productName, p.description AS description, " +
+            "c.categoryId AS categoryId FROM Product p LEFT JOIN p.category c")
+    List<ProductSearchDocument> findAllSearchDocuments();
 
-    Page<Product> findByUser(User user, Pageable pageDetails);
+    // Which of the given names the category already uses; one indexed lookup for a whole batch
+    @Query("SELECT p.productName FROM Product p WHERE p.category.categoryId = ?1 AND p.productName IN ?2")
+    List<String> findExistingNames(Long categoryId, Collection<String> productNames);
+
+    // Locks the cart's products in id order, so concurrent checkouts queue up instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId IN " +
+            "(SELECT ci.product.productId FROM CartItem ci WHERE ci.cart.cartId = ?1) ORDER BY p.productId")
+    List<Product> lockProductsInCart(Long cartId);
+
+    // Takes the stock for every line of a cart in one statement; lines short on stock are left untouched
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - " +
+            "(SELECT ci.quantity FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId = p.productId) " +
+            "WHERE p.productId IN (SELECT line.product.productId FROM CartItem line WHERE line.cart.cartId = ?1) " +
+            "AND p.quantity >= (SELECT ci.quantity FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId = p.productId)")
+    int decrementStockForCart(Long cartId);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - ?2 WHERE p.productId = ?1")
+    int applyConsumedStock(Long productId, long quantity);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.productId = ?1")
+    Integer findQuantityById(Long productId);
+
+    // Stock as the database has it now, whatever products the persistence context already holds
+    @Query("SELECT p.productId, p.quantity FROM Product p WHERE p.productId IN " +
+            "(SELECT ci.product.productId FROM CartItem ci WHERE ci.cart.cartId = ?1)")
+    List<Object[]> findStockInCart(Long cartId);
+
+    // Forward-only cursor read fetchSize rows at a time; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.productId AS productId, p.productName AS productName, p.description AS description, " +
+            "p.quantity AS quantity, p.price AS price, p.discount AS discount, p.specialPrice AS specialPrice, " +
+            "p.image AS image, c.categoryId AS categoryId, c.categoryName AS categoryName, u.userId AS sellerId " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.user u ORDER BY p.productId")
+    Stream<ProductExportRow> streamForExport();
 }
@@ -0,0 +1,17 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.payload.ProductDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductRepositoryCustom {
+
+    // Catalog fetch plan: selects only the ProductDTO columns, one SELECT for the page plus one COUNT
+    Page<ProductDTO> findProductDTOs(Specification<Product> spec, Pageable pageable);
+
+    // Same fetch plan, paged by cursor instead of OFFSET and without a COUNT
+    KeysetSlice<ProductDTO> findProductDTOSlice(Specification<Product> spec, String sortBy, boolean ascending,
+                                                String cursor, int pageSize);
+}
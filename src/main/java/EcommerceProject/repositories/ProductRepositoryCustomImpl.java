@@ -0,0 +1,80 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.payload.ProductDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private KeysetQueryExecutor keysetQueryExecutor;
+
+    @Override
+    public Page<ProductDTO> findProductDTOs(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductDTO> query = cb.createQuery(ProductDTO.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(productDTO(root, cb));
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<ProductDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductDTO> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public KeysetSlice<ProductDTO> findProductDTOSlice(Specification<Product> spec, String sortBy, boolean ascending,
+                                                       String cursor, int pageSize) {
+        return keysetQueryExecutor.findSlice(Product.class, ProductDTO.class, this::productDTO,
+                "productId", spec, sortBy, ascending, cursor, pageSize);
+    }
+
+    private CompoundSelection<ProductDTO> productDTO(Root<Product> root, CriteriaBuilder cb) {
+        return cb.construct(ProductDTO.class,
+                root.get("productId"),
+                root.get("productName"),
+                root.get("image"),
+                root.get("description"),
+                root.get("quantity"),
+                root.get("price"),
+                root.get("discount"),
+                root.get("specialPrice"));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Product> root = countQuery.from(Product.class);
+        countQuery.select(cb.count(root));
+        if (spec != null) {
+            countQuery.where(spec.toPredicate(root, countQuery, cb));
+        }
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+}
@@ -0,0 +1,19 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.ProductRollup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductRollupRepository extends JpaRepository<ProductRollup, ProductRollup.Key> {
+
+    // productId, orders, units, revenue
+    @Query("SELECT r.productId, SUM(r.orders), SUM(r.units), SUM(r.revenue) FROM ProductRollup r " +
+            "WHERE r.day BETWEEN ?1 AND ?2 GROUP BY r.productId ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> findTop(LocalDate from, LocalDate to, Limit limit);
+}
@@ -0,0 +1,9 @@
+package EcommerceProject.repositories;
+
+// Only the columns the in-memory search index needs
+public interface ProductSearchDocument {
+    Long getProductId();
+    String getProductName();
+    String getDescription();
+    Long getCategoryId();
+}
@@ -0,0 +1,26 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.SellerOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SellerOrderRepository extends JpaRepository<SellerOrder, SellerOrder.Key> {
+
+    // One statement per checkout, however many sellers the cart spans
+    @Modifying
+    @Query("INSERT INTO SellerOrder (orderId, sellerId) " +
+            "SELECT DISTINCT ?1, p.user.userId FROM Product p " +
+            "WHERE p.user IS NOT NULL AND p.productId IN (SELECT ci.product.productId FROM CartItem ci WHERE ci.cart.cartId = ?2)")
+    int insertForCart(Long orderId, Long cartId);
+
+    // Fills the table for orders placed before it existed, skipping rows checkouts have already written
+    @Modifying
+    @Query("INSERT INTO SellerOrder (orderId, sellerId) " +
+            "SELECT DISTINCT oi.order.orderId, oi.product.user.userId FROM OrderItem oi " +
+            "WHERE oi.product.user IS NOT NULL AND NOT EXISTS (SELECT 1 FROM SellerOrder so " +
+            "WHERE so.orderId = oi.order.orderId AND so.sellerId = oi.product.user.userId)")
+    int backfill();
+}
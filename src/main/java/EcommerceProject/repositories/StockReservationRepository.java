@@ -0,0 +1,38 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // userId, productId, held quantity, latest expiry for every user/product pair still holding stock
+    @Query("SELECT r.userId, r.productId, " +
+            "SUM(CASE WHEN r.type = EcommerceProject.Model.ReservationType.HOLD THEN r.quantity ELSE -r.quantity END), " +
+            "MAX(r.expiresAt) " +
+            "FROM StockReservation r GROUP BY r.userId, r.productId " +
+            "HAVING SUM(CASE WHEN r.type = EcommerceProject.Model.ReservationType.HOLD THEN r.quantity ELSE -r.quantity END) > 0")
+    List<Object[]> findOpenHolds();
+
+    // products.quantity minus the consumption not reconciled yet, in one statement so a reconcile cannot fall in between
+    @Query("SELECT p.quantity - COALESCE((SELECT SUM(r.quantity) FROM StockReservation r " +
+            "WHERE r.type = EcommerceProject.Model.ReservationType.CONSUME AND r.reconciled = false " +
+            "AND r.productId = p.productId), 0) FROM Product p WHERE p.productId = ?1")
+    Long findStockOnShelf(Long productId);
+
+    // reservationId, productId, quantity of the CONSUME entries not applied to products.quantity yet
+    @Query("SELECT r.reservationId, r.productId, r.quantity FROM StockReservation r " +
+            "WHERE r.type = EcommerceProject.Model.ReservationType.CONSUME AND r.reconciled = false ORDER BY r.reservationId")
+    List<Object[]> findUnreconciled(Limit limit);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.reconciled = true WHERE r.reservationId IN ?1 AND r.reconciled = false")
+    int markReconciled(Collection<Long> reservationIds);
+}
@@ -0,0 +1,31 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Watermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WatermarkRepository extends JpaRepository<Watermark, String> {
+
+    default long position(String name) {
+        return findById(name).map(Watermark::getPosition).orElse(0L);
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO watermarks (name, position) VALUES (?1, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfMissing(String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Watermark w WHERE w.name = ?1")
+    Watermark findForUpdate(String name);
+
+    // Row lock held until the caller's transaction ends, so a job runs on one instance at a time
+    default Watermark lock(String name) {
+        createIfMissing(name);
+        return findForUpdate(name);
+    }
+}
@@ -3,11 +3,11 @@ package EcommerceProject.service;
 import EcommerceProject.Exception.ResourceNotFoundException;
 import EcommerceProject.Model.Address;
 import EcommerceProject.Model.User;
+import EcommerceProject.mapper.AddressMapper;
 import EcommerceProject.payload.AddressDTO;
 import EcommerceProject.repositories.AddressRepository;
 import EcommerceProject.repositories.UserRepository;
 import EcommerceProject.util.AuthUtil;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -22,27 +22,27 @@ public class AddressServiceImpl implements AddressService{
     private UserRepository userRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private AddressMapper addressMapper;
 
     @Autowired
     private AuthUtil authUtil;
 
     @Override
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         address.setUser(user);
         List<Address> addressesList = user.getAddresses();
         addressesList.add(address);
         user.setAddresses(addressesList);
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toDto(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAddresses() {
         List<Address> addresses = addressRepository.findAll();
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(addressMapper::toDto)
                 .toList();
     }
 
@@ -50,14 +50,14 @@ public class AddressServiceImpl implements AddressService{
     public AddressDTO getAddressesById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toDto(address);
     }
 
     @Override
     public List<AddressDTO> getUserAddresses(User user) {
         List<Address> addresses = user.getAddresses();
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(addressMapper::toDto)
                 .toList();
     }
 
@@ -80,7 +80,7 @@ public class AddressServiceImpl implements AddressService{
         user.getAddresses().add(updatedAddress);
         userRepository.save(user);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toDto(updatedAddress);
     }
 
     @Override
@@ -0,0 +1,5 @@
+package EcommerceProject.service;
+
+public interface AnalyticsRollupService {
+    int rollUp();
+}
@@ -0,0 +1,147 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.CategoryRollup;
+import EcommerceProject.Model.OrderRollup;
+import EcommerceProject.Model.ProductRollup;
+import EcommerceProject.Model.Watermark;
+import EcommerceProject.repositories.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds new orders into the hourly, per-product and per-category rollup tables. Checkout queues each order
+ * in {@code pending_rollups} in its own transaction, so an order is picked up once it commits, whatever its
+ * id. Each chunk of queued orders is added and dequeued in one transaction, so a failed or repeated run
+ * never counts an order twice. The watermark row is locked for the chunk, so instances running the job at
+ * the same time take turns; its position records that orders from before the queue have been queued.
+ */
+@Service
+public class AnalyticsRollupServiceImpl implements AnalyticsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsRollupServiceImpl.class);
+
+    static final String WATERMARK = "analytics_rollups";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+
+    @Autowired
+    private ProductRollupRepository productRollupRepository;
+
+    @Autowired
+    private CategoryRollupRepository categoryRollupRepository;
+
+    @Autowired
+    private PendingRollupRepository pendingRollupRepository;
+
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ecom.analytics.rollupChunkSize:5000}")
+    private int chunkSize;
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.analytics.rollupIntervalMs:60000}")
+    public int rollUp() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int chunks = 0;
+        while (Boolean.TRUE.equals(transaction.execute(status -> rollUpChunk()))) {
+            chunks++;
+        }
+        if (chunks > 0) {
+            logger.info("Rolled up {} chunks of orders into the analytics rollups", chunks);
+        }
+        return chunks;
+    }
+
+    private boolean rollUpChunk() {
+        // Held until the chunk commits; whoever waited here then only sees what is still queued
+        Watermark watermark = watermarkRepository.lock(WATERMARK);
+        if (watermark.getPosition() == 0) {
+            logger.info("Queued {} existing orders for the analytics rollups", pendingRollupRepository.backfill());
+            watermark.setPosition(1L);
+        }
+        List<Long> orderIds = pendingRollupRepository.findOrderIds(Limit.of(chunkSize));
+        if (orderIds.isEmpty()) {
+            return false;
+        }
+
+        Map<LocalDateTime, OrderRollup> hours = new HashMap<>();
+        for (Object[] row : orderRepository.rollupHours(orderIds)) {
+            OrderRollup rollup = hours.computeIfAbsent(hour(row), start -> new OrderRollup(start, start.toLocalDate(), 0, 0, 0));
+            rollup.setOrders(((Number) row[2]).longValue());
+            rollup.setRevenue(((Number) row[3]).doubleValue());
+        }
+        for (Object[] row : orderItemRepository.rollupUnitsByHour(orderIds)) {
+            OrderRollup rollup = hours.computeIfAbsent(hour(row), start -> new OrderRollup(start, start.toLocalDate(), 0, 0, 0));
+            rollup.setUnits(((Number) row[2]).longValue());
+        }
+        for (OrderRollup existing : orderRollupRepository.findAllById(hours.keySet())) {
+            OrderRollup delta = hours.get(existing.getBucketStart());
+            existing.setOrders(existing.getOrders() + delta.getOrders());
+            existing.setUnits(existing.getUnits() + delta.getUnits());
+            existing.setRevenue(existing.getRevenue() + delta.getRevenue());
+            hours.put(existing.getBucketStart(), existing);
+        }
+        orderRollupRepository.saveAll(hours.values());
+
+        Map<ProductRollup.Key, ProductRollup> products = new HashMap<>();
+        for (Object[] row : orderItemRepository.rollupProducts(orderIds)) {
+            ProductRollup rollup = new ProductRollup((LocalDate) row[0], (Long) row[1], ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue(), ((Number) row[4]).doubleValue());
+            products.put(new ProductRollup.Key(rollup.getDay(), rollup.getProductId()), rollup);
+        }
+        for (ProductRollup existing : productRollupRepository.findAllById(products.keySet())) {
+            ProductRollup delta = products.get(new ProductRollup.Key(existing.getDay(), existing.getProductId()));
+            existing.setOrders(existing.getOrders() + delta.getOrders());
+            existing.setUnits(existing.getUnits() + delta.getUnits());
+            existing.setRevenue(existing.getRevenue() + delta.getRevenue());
+            products.put(new ProductRollup.Key(existing.getDay(), existing.getProductId()), existing);
+        }
+        productRollupRepository.saveAll(products.values());
+
+        Map<CategoryRollup.Key, CategoryRollup> categories = new HashMap<>();
+        for (Object[] row : orderItemRepository.rollupCategories(orderIds)) {
+            CategoryRollup rollup = new CategoryRollup((LocalDate) row[0], (Long) row[1], ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue(), ((Number) row[4]).doubleValue());
+            categories.put(new CategoryRollup.Key(rollup.getDay(), rollup.getCategoryId()), rollup);
+        }
+        for (CategoryRollup existing : categoryRollupRepository.findAllById(categories.keySet())) {
+            CategoryRollup delta = categories.get(new CategoryRollup.Key(existing.getDay(), existing.getCategoryId()));
+            existing.setOrders(existing.getOrders() + delta.getOrders());
+            existing.setUnits(existing.getUnits() + delta.getUnits());
+            existing.setRevenue(existing.getRevenue() + delta.getRevenue());
+            categories.put(new CategoryRollup.Key(existing.getDay(), existing.getCategoryId()), existing);
+        }
+        categoryRollupRepository.saveAll(categories.values());
+
+        pendingRollupRepository.deleteByOrderIds(orderIds);
+        return true;
+    }
+
+    private static LocalDateTime hour(Object[] row) {
+        return ((LocalDate) row[0]).atTime(((Number) row[1]).intValue(), 0);
+    }
+}
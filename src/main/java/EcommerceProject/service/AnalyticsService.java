@@ -1,7 +1,20 @@
 package EcommerceProject.service;
 
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.OrderItem;
 import EcommerceProject.payload.AnalyticsResponse;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface AnalyticsService {
     AnalyticsResponse getAnalyticsData();
+
+    AnalyticsResponse getAnalyticsData(LocalDate from, LocalDate to, String granularity, int top);
+
+    void recordProducts(int delta);
+
+    void recordOrder(Order order, List<OrderItem> orderItems);
+
+    void refresh();
 }
@@ -1,31 +1,309 @@
 package EcommerceProject.service;
 
+import EcommerceProject.Exception.APIException;
+import EcommerceProject.Model.AnalyticsBucket;
+import EcommerceProject.Model.AnalyticsCounter;
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.OrderItem;
+import EcommerceProject.Model.OrderRollup;
+import EcommerceProject.Model.Product;
+import EcommerceProject.payload.AnalyticsBucketDTO;
+import EcommerceProject.payload.AnalyticsRangeDTO;
 import EcommerceProject.payload.AnalyticsResponse;
-import EcommerceProject.repositories.OrderRepository;
-import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the dashboard figures as running totals instead of counting the order history on every load.
+ * Product, order and revenue counters are striped rows updated in the same transaction as the change;
+ * per-day, per-category and per-seller buckets are striped the same way, created if missing and updated at
+ * checkout, in its transaction. A checkout writes all of its counters and buckets in one randomly picked slot.
+ * The counters are seeded before the application takes traffic, so every update must hit its rows.
+ * Reads are answered from an in-memory snapshot refreshed every ecom.analytics.refreshIntervalMs.
+ * Date ranges are answered from the rollup tables kept by {@link AnalyticsRollupServiceImpl}.
+ */
 @Service
 public class AnalyticsServiceImpl implements AnalyticsService{
 
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    static final String PRODUCTS = "products";
+    static final String ORDERS = "orders";
+    static final String REVENUE = "revenue";
+
+    static final String SEED_MARKER = "analytics_seed";
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private AnalyticsCounterRepository analyticsCounterRepository;
+
+    @Autowired
+    private AnalyticsBucketRepository analyticsBucketRepository;
+
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+
+    @Autowired
+    private ProductRollupRepository productRollupRepository;
+
+    @Autowired
+    private CategoryRollupRepository categoryRollupRepository;
+
+    @Autowired
+    private PendingRollupRepository pendingRollupRepository;
+
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ecom.analytics.counterSlots:16}")
+    private int counterSlots;
+
+    @Value("${ecom.analytics.topBuckets:10}")
+    private int topBuckets;
+
+    @Value("${ecom.analytics.recentDays:30}")
+    private int recentDays;
+
+    @Value("${ecom.analytics.maxRangeDays:366}")
+    private int maxRangeDays;
+
+    @Value("${ecom.analytics.maxHourlyRangeDays:31}")
+    private int maxHourlyRangeDays;
+
+    private volatile AnalyticsResponse snapshot;
+
+    // Bucket rows known to be committed, so checkout only upserts the ones it has not seen yet
+    private final Set<AnalyticsBucket.Key> knownBuckets = ConcurrentHashMap.newKeySet();
+
+    // Checkouts in the same slot lock the buckets they share in this order
+    private static final Comparator<AnalyticsBucket.Key> BUCKET_ORDER =
+            Comparator.comparing(AnalyticsBucket.Key::getDimension).thenComparing(AnalyticsBucket.Key::getBucketKey);
+
+    private static final class BucketDelta {
+        private long units;
+        private double revenue;
+    }
+
     @Override
     public AnalyticsResponse getAnalyticsData() {
-        AnalyticsResponse response = new AnalyticsResponse();
+        AnalyticsResponse current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    @Override
+    public AnalyticsResponse getAnalyticsData(LocalDate from, LocalDate to, String granularity, int top) {
+        boolean hourly = "HOUR".equalsIgnoreCase(granularity);
+        if (!hourly && !"DAY".equalsIgnoreCase(granularity)) {
+            throw new APIException("granularity must be DAY or HOUR");
+        }
+        if (to.isBefore(from)) {
+            throw new APIException("from must not be after to");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        int maxDays = hourly ? maxHourlyRangeDays : maxRangeDays;
+        if (days > maxDays) {
+            throw new APIException("Ranges are limited to " + maxDays + " days at " + granularity.toUpperCase() + " granularity");
+        }
+        if (top < 1 || top > 100) {
+            throw new APIException("top must be between 1 and 100");
+        }
+
+        // Empty buckets are filled with zeros so every series has one point per day or hour
+        Map<String, AnalyticsBucketDTO> series = new LinkedHashMap<>();
+        if (hourly) {
+            for (LocalDateTime hour = from.atStartOfDay(); hour.isBefore(to.plusDays(1).atStartOfDay()); hour = hour.plusHours(1)) {
+                series.put(hour.toString(), new AnalyticsBucketDTO(hour.toString(), 0, 0, 0));
+            }
+            for (OrderRollup rollup : orderRollupRepository.findHours(from, to)) {
+                String key = rollup.getBucketStart().toString();
+                series.put(key, new AnalyticsBucketDTO(key, rollup.getOrders(), rollup.getUnits(), rollup.getRevenue()));
+            }
+        } else {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                series.put(day.toString(), new AnalyticsBucketDTO(day.toString(), 0, 0, 0));
+            }
+            for (Object[] row : orderRollupRepository.findDays(from, to)) {
+                String key = row[0].toString();
+                series.put(key, new AnalyticsBucketDTO(key, ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue()));
+            }
+        }
 
-        long productCount = productRepository.count();
-        long totalOrders = orderRepository.count();;
-        Double totalRevenue = orderRepository.getTotalRevenue();
+        AnalyticsRangeDTO range = new AnalyticsRangeDTO(from, to, hourly ? "HOUR" : "DAY", new ArrayList<>(series.values()),
+                rowsToDtos(productRollupRepository.findTop(from, to, Limit.of(top))),
+                rowsToDtos(categoryRollupRepository.findTop(from, to, Limit.of(top))));
+
+        AnalyticsResponse totals = getAnalyticsData();
+        return new AnalyticsResponse(totals.getProductCount(), totals.getTotalRevenue(), totals.getTotalOrders(),
+                totals.getRecentDays(), totals.getTopCategories(), totals.getTopSellers(), range);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordProducts(int delta) {
+        expectRows("Counter " + PRODUCTS, analyticsCounterRepository.add(PRODUCTS, slot(), delta), 1);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordOrder(Order order, List<OrderItem> orderItems) {
+        int slot = slot();
+        expectRows("Counters " + ORDERS + " and " + REVENUE, analyticsCounterRepository.addOrder(slot, order.getTotalAmount()), 2);
+
+        // Worked out from the lines in hand; order_items is never read back
+        Map<AnalyticsBucket.Key, BucketDelta> deltas = new TreeMap<>(BUCKET_ORDER);
+        BucketDelta day = deltas.computeIfAbsent(new AnalyticsBucket.Key("DAY", order.getOrderDate().toString(), slot),
+                key -> new BucketDelta());
+        day.revenue = order.getTotalAmount();
+        for (OrderItem item : orderItems) {
+            Product product = item.getProduct();
+            day.units += item.getQuantity();
+            if (product.getCategory() != null) {
+                addLine(deltas, new AnalyticsBucket.Key("CATEGORY", String.valueOf(product.getCategory().getCategoryId()), slot), item);
+            }
+            if (product.getUser() != null) {
+                addLine(deltas, new AnalyticsBucket.Key("SELLER", String.valueOf(product.getUser().getUserId()), slot), item);
+            }
+        }
+        createMissingBuckets(deltas.keySet());
+
+        deltas.forEach((key, delta) -> expectRows("Bucket " + key.getDimension() + ":" + key.getBucketKey(),
+                analyticsBucketRepository.addOrder(key.getDimension(), key.getBucketKey(), slot, delta.units, delta.revenue), 1));
+
+        // Seen by the rollup job only once this transaction commits
+        pendingRollupRepository.add(order.getOrderId());
+    }
+
+    private static void addLine(Map<AnalyticsBucket.Key, BucketDelta> deltas, AnalyticsBucket.Key key, OrderItem item) {
+        BucketDelta delta = deltas.computeIfAbsent(key, k -> new BucketDelta());
+        delta.units += item.getQuantity();
+        delta.revenue += item.getOrderedProductPrice() * item.getQuantity();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.analytics.refreshIntervalMs:5000}")
+    public void refresh() {
+        Map<String, Double> totals = new HashMap<>();
+        for (Object[] row : analyticsCounterRepository.totals()) {
+            totals.put((String) row[0], ((Number) row[1]).doubleValue());
+        }
+
+        AnalyticsResponse response = new AnalyticsResponse(
+                String.valueOf(totals.getOrDefault(PRODUCTS, 0.0).longValue()),
+                String.valueOf(totals.getOrDefault(REVENUE, 0.0)),
+                String.valueOf(totals.getOrDefault(ORDERS, 0.0).longValue()));
+        response.setRecentDays(rowsToDtos(analyticsBucketRepository.findLatestDays(Limit.of(recentDays))));
+        response.setTopCategories(rowsToDtos(analyticsBucketRepository.findTopByRevenue("CATEGORY", Limit.of(topBuckets))));
+        response.setTopSellers(rowsToDtos(analyticsBucketRepository.findTopByRevenue("SELLER", Limit.of(topBuckets))));
+        snapshot = response;
+    }
+
+    // Before the web server starts, so no checkout on this instance runs ahead of the counter rows
+    @PostConstruct
+    public void seed() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            // Instances starting together wait here, so the history is counted once
+            watermarkRepository.lock(SEED_MARKER);
+            // One-off for databases that predate the counters: count once, then only ever add
+            if (analyticsCounterRepository.count() == 0) {
+                Double revenue = orderRepository.getTotalRevenue();
+                Map<String, Double> initial = Map.of(
+                        PRODUCTS, (double) productRepository.count(),
+                        ORDERS, (double) orderRepository.count(),
+                        REVENUE, revenue != null ? revenue : 0.0);
+                List<AnalyticsCounter> counters = new ArrayList<>();
+                initial.forEach((name, value) -> {
+                    for (int slot = 0; slot < counterSlots; slot++) {
+                        counters.add(new AnalyticsCounter(name, slot, slot == 0 ? value : 0.0));
+                    }
+                });
+                analyticsCounterRepository.saveAll(counters);
+                analyticsCounterRepository.flush();
+                logger.info("Seeded analytics counters from {} products and {} orders",
+                        initial.get(PRODUCTS).longValue(), initial.get(ORDERS).longValue());
+            }
+            // Slots added by raising ecom.analytics.counterSlots start at zero
+            for (String name : List.of(PRODUCTS, ORDERS, REVENUE)) {
+                for (int slot = 0; slot < counterSlots; slot++) {
+                    analyticsCounterRepository.createIfMissing(name, slot);
+                }
+            }
+            if (analyticsBucketRepository.count() == 0 && orderRepository.count() > 0) {
+                analyticsBucketRepository.backfillDays();
+                analyticsBucketRepository.backfillDayUnits();
+                analyticsBucketRepository.backfillCategories();
+                analyticsBucketRepository.backfillSellers();
+                logger.info("Backfilled analytics buckets from the order history");
+            }
+        });
+        refresh();
+    }
+
+    private void createMissingBuckets(Set<AnalyticsBucket.Key> keys) {
+        // Sorted, so concurrent checkouts creating the same buckets take their locks in the same order
+        List<AnalyticsBucket.Key> unknown = keys.stream().filter(key -> !knownBuckets.contains(key)).sorted(BUCKET_ORDER).toList();
+        if (unknown.isEmpty()) {
+            return;
+        }
+        for (AnalyticsBucket.Key key : unknown) {
+            analyticsBucketRepository.createIfMissing(key.getDimension(), key.getBucketKey(), key.getSlot());
+        }
+        // A rolled back checkout takes its new buckets with it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                knownBuckets.addAll(unknown);
+            }
+        });
+    }
+
+    private static void expectRows(String what, int updated, int expected) {
+        if (updated != expected) {
+            throw new IllegalStateException(what + ": updated " + updated + " rows, expected " + expected);
+        }
+    }
+
+    private int slot() {
+        return ThreadLocalRandom.current().nextInt(counterSlots);
+    }
 
-        response.setProductCount(String.valueOf(productCount));
-        response.setTotalOrders(String.valueOf(totalOrders));
-        response.setTotalRevenue(String.valueOf(totalRevenue != null ? totalRevenue : 0));
-        return response;
+    // key, orders, units, revenue
+    private static List<AnalyticsBucketDTO> rowsToDtos(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new AnalyticsBucketDTO(String.valueOf(row[0]), ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue()))
+                .toList();
     }
 }
\ No newline at end of file
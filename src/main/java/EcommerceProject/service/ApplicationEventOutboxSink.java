@@ -0,0 +1,23 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands events to in-process {@code @EventListener(OutboxEvent.class)} methods on the relay thread.
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -15,7 +15,6 @@ import EcommerceProject.payload.*;
 import EcommerceProject.repositories.RoleRepository;
 import EcommerceProject.repositories.UserRepository;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -51,9 +50,6 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     PasswordEncoder encoder;
 
-    @Autowired
-    ModelMapper modelMapper;
-
     @Override
     public AuthenticationResult login(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager
@@ -0,0 +1,9 @@
+package EcommerceProject.service;
+
+import EcommerceProject.payload.CartPriceSyncDTO;
+
+public interface CartPriceSyncService {
+    CartPriceSyncDTO schedule(Long productId);
+
+    CartPriceSyncDTO getStatus(Long productId);
+}
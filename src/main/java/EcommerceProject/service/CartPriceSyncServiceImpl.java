@@ -0,0 +1,152 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.ResourceNotFoundException;
+import EcommerceProject.Model.CartPriceSyncJob;
+import EcommerceProject.Model.CartPriceSyncStatus;
+import EcommerceProject.payload.CartPriceSyncDTO;
+import EcommerceProject.repositories.CartItemRepository;
+import EcommerceProject.repositories.CartPriceSyncJobRepository;
+import EcommerceProject.repositories.CartRepository;
+import EcommerceProject.repositories.CartStore;
+import EcommerceProject.repositories.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes a product's current special price and discount into every cart line holding it.
+ * Jobs run one at a time off the request thread and walk the lines in id order, each chunk being
+ * two set-based updates (reprice lines, recompute the affected cart totals) in its own transaction.
+ * Job status is kept in cart_price_sync_jobs, so it can be polled through any instance.
+ */
+@Service
+public class CartPriceSyncServiceImpl implements CartPriceSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartPriceSyncServiceImpl.class);
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartPriceSyncJobRepository cartPriceSyncJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ecom.cart.priceSyncChunkSize:1000}")
+    private int chunkSize;
+
+    // A single worker keeps jobs for the same product in submission order
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-price-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public CartPriceSyncDTO schedule(Long productId) {
+        LocalDateTime queuedAt = LocalDateTime.now();
+        // Joins the product update's transaction, so a rolled back change queues nothing
+        Long run = new TransactionTemplate(transactionManager).execute(status -> {
+            cartPriceSyncJobRepository.createIfMissing(productId);
+            cartPriceSyncJobRepository.queue(productId, queuedAt);
+            return cartPriceSyncJobRepository.findRun(productId);
+        });
+
+        // Chunks read the price from the product row, so they must not start before it is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(() -> run(productId, run));
+                }
+            });
+        } else {
+            executor.execute(() -> run(productId, run));
+        }
+        return new CartPriceSyncDTO(productId, CartPriceSyncStatus.QUEUED.name(), 0, 0, queuedAt, null);
+    }
+
+    @Override
+    public CartPriceSyncDTO getStatus(Long productId) {
+        CartPriceSyncJob job = cartPriceSyncJobRepository.findById(productId)
+                .filter(found -> found.getStatus() != null)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart price sync", "productId", productId));
+        return new CartPriceSyncDTO(productId, job.getStatus().name(), job.getCartItemsTotal(),
+                job.getCartItemsUpdated(), job.getQueuedAt(), job.getFinishedAt());
+    }
+
+    private void run(Long productId, long run) {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long updated = 0;
+        try {
+            productRepository.findById(productId).ifPresent(product ->
+                    cartStore.productRepriced(productId, product.getSpecialPrice(), product.getDiscount()));
+
+            long total = cartItemRepository.countByProductProductId(productId);
+            Integer started = transaction.execute(status -> cartPriceSyncJobRepository.markRunning(productId, run, total));
+            if (started == null || started == 0) {
+                return;
+            }
+            Long lastCartItemId = 0L;
+            while (true) {
+                List<Long> cartItemIds = cartItemRepository.findIdsByProductId(productId, lastCartItemId, Limit.of(chunkSize));
+                if (cartItemIds.isEmpty()) {
+                    break;
+                }
+                // Progress commits with the chunk it counts
+                Integer reported = transaction.execute(status -> {
+                    cartItemRepository.repriceCartItems(productId, cartItemIds);
+                    cartRepository.recomputeTotalsForCartItems(cartItemIds);
+                    return cartPriceSyncJobRepository.addUpdated(productId, run, cartItemIds.size());
+                });
+                updated += cartItemIds.size();
+                if (reported == null || reported == 0) {
+                    // Queued again meanwhile; the newer run reprices every line itself
+                    return;
+                }
+                lastCartItemId = cartItemIds.get(cartItemIds.size() - 1);
+            }
+            transaction.executeWithoutResult(status ->
+                    cartPriceSyncJobRepository.finish(productId, run, CartPriceSyncStatus.DONE, LocalDateTime.now()));
+            logger.info("Repriced {} cart lines for product {} in {} ms",
+                    updated, productId, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Cart price sync for product {} failed after {} lines: {}", productId, updated, e.getMessage());
+            try {
+                transaction.executeWithoutResult(status ->
+                        cartPriceSyncJobRepository.finish(productId, run, CartPriceSyncStatus.FAILED, LocalDateTime.now()));
+            } catch (RuntimeException statusFailure) {
+                logger.error("Could not record the failed cart price sync for product {}: {}", productId, statusFailure.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,24 +1,27 @@
 package EcommerceProject.service;
 
 import EcommerceProject.payload.CartDTO;
+import EcommerceProject.payload.CartDeltaDTO;
 import EcommerceProject.payload.CartItemDTO;
 import jakarta.transaction.Transactional;
 
 import java.util.List;
 
 public interface CartService {
-    CartDTO addProductToCart(Long productId, Integer quantity);
+    CartDeltaDTO addProductToCart(Long productId, Integer quantity, boolean fullCart);
 
     List<CartDTO> getAllCarts();
 
     CartDTO getCartByEmail(String emailId);
 
     @Transactional
-    CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
+    CartDeltaDTO updateProductQuantityInCart(Long productId, Integer quantity, boolean fullCart);
 
     String deleteProductFromCart(Long cartId, Long productId);
 
-    void updateProductInCarts(Long cartId, Long productId);
-
     String createOrUpdateCartWithItems(List<CartItemDTO> cartItems);
+
+    long removeProductFromCarts(Long productId);
+
+    long removeRemainingCartItems(Long productId);
 }
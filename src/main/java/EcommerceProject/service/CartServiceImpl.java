@@ -6,19 +6,30 @@ import EcommerceProject.Exception.ResourceNotFoundException;
 import EcommerceProject.Model.Cart;
 import EcommerceProject.Model.CartItem;
 import EcommerceProject.Model.Product;
+import EcommerceProject.mapper.CartMapper;
 import EcommerceProject.payload.CartDTO;
+import EcommerceProject.payload.CartDeltaDTO;
 import EcommerceProject.payload.CartItemDTO;
-import EcommerceProject.payload.ProductCartDTO;
 import EcommerceProject.repositories.CartItemRepository;
+import EcommerceProject.repositories.CartLine;
 import EcommerceProject.repositories.CartRepository;
+import EcommerceProject.repositories.CartStore;
 import EcommerceProject.repositories.ProductRepository;
 import EcommerceProject.util.AuthUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,11 +48,28 @@ public class CartServiceImpl implements CartService {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CartMapper cartMapper;
 
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Value("${ecom.cart.cleanupChunkSize:1000}")
+    private int cleanupChunkSize;
+
+    @Transactional
     @Override
-    public CartDTO addProductToCart(Long productId, Integer quantity) {
-        Cart cart = createCart();
+    public CartDeltaDTO addProductToCart(Long productId, Integer quantity, boolean fullCart) {
+        Long userId = authUtil.loggedInUserId();
+        Long cartId = cartStore.findCartId(userId, true);
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
@@ -54,56 +82,18 @@ public class CartServiceImpl implements CartService {
             throw new APIException("Please order " + product.getProductName() + " with quantity <= " + product.getQuantity());
         }
 
-        // Find existing cart item
-        CartItem cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cart.getCartId(), productId);
-
-        if (cartItem != null) {
-            // Update quantity
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        } else {
-            // Create new cart item
-            cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(cart);
-            cartItem.setQuantity(quantity);
-            cartItem.setDiscount(product.getDiscount());
-            cartItem.setProductPrice(product.getSpecialPrice());
-
-            // Add to cart's item list
-            cart.getCartItems().add(cartItem);
-        }
-
-        // Recalculate total price
-        double total = cart.getCartItems().stream()
-                .mapToDouble(item -> item.getProductPrice() * item.getQuantity())
-                .sum();
-        cart.setTotalPrice(total);
-
-        // Save cart (cascade will save items)
-        cartRepository.save(cart);
+        holdStock(userId, product, quantity);
 
-        // Map to DTO
-        CartDTO cartDTO = new CartDTO();
-        cartDTO.setCartId(cart.getCartId());
-        cartDTO.setTotalPrice(cart.getTotalPrice());
+        // Upsert the single line, the rest of the cart is never loaded
+        CartLine cartLine = cartStore.findLine(cartId, productId);
 
-        List<CartItemDTO> items = cart.getCartItems().stream().map(ci -> {
-            CartItemDTO dto = new CartItemDTO();
-            dto.setCartItemId(ci.getCartItemId());
-            dto.setProduct(modelMapper.map(ci.getProduct(), ProductCartDTO.class));
-            dto.setQuantity(ci.getQuantity());
+        // Existing lines keep the price they were added at
+        CartLine updated = cartLine != null
+                ? cartLine.withQuantity(cartLine.quantity() + quantity)
+                : new CartLine(null, productId, quantity, product.getSpecialPrice(), product.getDiscount());
+        updated = cartStore.saveLine(cartId, cartLine, updated);
 
-            // Set original price, discount %, and final price
-            dto.setPrice(ci.getProduct().getPrice());      // original price
-            dto.setDiscount(ci.getDiscount());             // discount %
-            dto.setProductPrice(ci.getProductPrice());     // price after discount
-
-            return dto;
-        }).collect(Collectors.toList());
-
-        cartDTO.setItems(items);
-
-        return cartDTO;
+        return toDelta(cartId, updated, product, fullCart);
     }
 
     @Override
@@ -114,240 +104,181 @@ public class CartServiceImpl implements CartService {
             throw new APIException("No cart exists");
         }
 
-        return carts.stream().map(cart -> {
-            CartDTO cartDTO = new CartDTO();
-            cartDTO.setCartId(cart.getCartId());
-            cartDTO.setTotalPrice(cart.getTotalPrice());
-
-            List<CartItemDTO> items = cart.getCartItems().stream().map(ci -> {
-                CartItemDTO dto = new CartItemDTO();
-                dto.setCartItemId(ci.getCartItemId());
-                dto.setProduct(modelMapper.map(ci.getProduct(), ProductCartDTO.class));
-                dto.setQuantity(ci.getQuantity());
-
-                // Set original price, discount %, and final price
-                dto.setPrice(ci.getProduct().getPrice());      // original price
-                dto.setDiscount(ci.getDiscount());             // discount %
-                dto.setProductPrice(ci.getProductPrice());     // price after discount
-
-                return dto;
-            }).collect(Collectors.toList());
-
-            cartDTO.setItems(items);
-            return cartDTO;
-        }).collect(Collectors.toList());
+        return carts.stream()
+                .map(cartMapper::toDto)
+                .collect(Collectors.toList());
     }
 
+    @Transactional
     @Override
     public CartDTO getCartByEmail(String emailId) {
         // Fetch cart for this user
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        Long cartId = cartRepository.findCartIdByEmail(emailId);
+        Cart cart = cartId != null ? cartStore.loadCart(cartId) : null;
         if (cart == null) {
             throw new ResourceNotFoundException("Cart", "emailId", emailId);
         }
 
-        // Map cart to CartDTO
-        CartDTO cartDTO = new CartDTO();
-        cartDTO.setCartId(cart.getCartId());
-        cartDTO.setTotalPrice(cart.getTotalPrice());
-
-        // Map cart items
-        List<CartItemDTO> items = cart.getCartItems().stream().map(ci -> {
-            CartItemDTO dto = new CartItemDTO();
-            dto.setCartItemId(ci.getCartItemId());
-            dto.setProduct(modelMapper.map(ci.getProduct(), ProductCartDTO.class));
-            dto.setQuantity(ci.getQuantity());
-
-            // Set original price, discount %, and final price
-            dto.setPrice(ci.getProduct().getPrice());      // original price
-            dto.setDiscount(ci.getDiscount());             // discount %
-            dto.setProductPrice(ci.getProductPrice());     // price after discount
-
-            return dto;
-        }).collect(Collectors.toList());
-
-
-        cartDTO.setItems(items);
-
-        return cartDTO;
+        return cartMapper.toDto(cart);
     }
 
     @Transactional
     @Override
-    public CartDTO updateProductQuantityInCart(Long productId, Integer quantityChange) {
+    public CartDeltaDTO updateProductQuantityInCart(Long productId, Integer quantityChange, boolean fullCart) {
 
         // Get logged-in user's cart
-        String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        if (cart == null) {
-            throw new ResourceNotFoundException("Cart", "emailId", emailId);
+        Long userId = authUtil.loggedInUserId();
+        Long cartId = cartStore.findCartId(userId, false);
+        if (cartId == null) {
+            throw new ResourceNotFoundException("Cart", "emailId", authUtil.loggedInEmail());
         }
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        CartItem cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cart.getCartId(), productId);
-        if (cartItem == null) {
+        CartLine cartLine = cartStore.findLine(cartId, productId);
+        if (cartLine == null) {
             throw new APIException("Product " + product.getProductName() + " not available in the cart!");
         }
 
-        int newQuantity = cartItem.getQuantity() + quantityChange;
+        int newQuantity = cartLine.quantity() + quantityChange;
 
         if (newQuantity > product.getQuantity()) {
             throw new APIException("You can order up to " + product.getQuantity() + " of " + product.getProductName());
         }
 
-        if (newQuantity <= 0) {
-            // Remove item if quantity <= 0
-            cartItemRepository.delete(cartItem);
-            cart.getCartItems().remove(cartItem); // ✅ remove from cart collection
-        } else {
-            // Update cart item
-            cartItem.setQuantity(newQuantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
+        if (quantityChange > 0) {
+            holdStock(userId, product, quantityChange);
+        } else if (inventoryService.isEnabled()) {
+            inventoryService.release(userId, productId, Math.min(-quantityChange, cartLine.quantity()));
         }
 
-        // Recalculate total price from all items
-        double total = cart.getCartItems().stream()
-                .mapToDouble(ci -> ci.getQuantity() * ci.getProductPrice())
-                .sum();
-        cart.setTotalPrice(total);
-        cartRepository.save(cart);
-
-        // Build CartDTO with new structure
-        List<CartItemDTO> itemDTOs = cart.getCartItems().stream()
-                .map(ci -> {
-                    CartItemDTO dto = new CartItemDTO();
-                    dto.setCartItemId(ci.getCartItemId());
-                    dto.setProduct(modelMapper.map(ci.getProduct(), ProductCartDTO.class));
-                    dto.setQuantity(ci.getQuantity());
-
-                    dto.setPrice(ci.getProduct().getPrice());      // original price
-                    dto.setDiscount(ci.getDiscount());             // discount %
-                    dto.setProductPrice(ci.getProductPrice());     // price after discount
-
-                    return dto;
-                }).toList();
-
+        // Remove the line if quantity <= 0, otherwise reprice it at the current special price
+        CartLine updated = newQuantity <= 0
+                ? cartLine.withQuantity(0)
+                : new CartLine(cartLine.cartItemId(), productId, newQuantity, product.getSpecialPrice(), product.getDiscount());
+        updated = cartStore.saveLine(cartId, cartLine, updated);
 
-        return new CartDTO(cart.getCartId(), cart.getTotalPrice(), itemDTOs);
+        return toDelta(cartId, updated, product, fullCart);
     }
 
-
-
-
     @Transactional
     @Override
     public String deleteProductFromCart(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        if (!cartRepository.existsById(cartId)) {
+            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+        }
 
-        CartItem cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cartId, productId);
+        CartLine cartLine = cartStore.findLine(cartId, productId);
 
-        if (cartItem == null) {
+        if (cartLine == null) {
             throw new ResourceNotFoundException("Product", "productId", productId);
         }
 
-        cart.setTotalPrice(cart.getTotalPrice() -
-                (cartItem.getProductPrice() * cartItem.getQuantity()));
-
-        cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
+        cartStore.saveLine(cartId, cartLine, cartLine.withQuantity(0));
+        if (inventoryService.isEnabled()) {
+            inventoryService.release(cartRepository.findUserIdByCartId(cartId), productId, cartLine.quantity());
+        }
 
-        return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+        String productName = productRepository.findById(productId).map(Product::getProductName).orElse("");
+        return "Product " + productName + " removed from the cart !!!";
     }
 
-
-    private Cart createCart() {
-        Cart userCart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
-        if (userCart != null) {
-            return userCart;
+    // With stock holds enabled, cart quantity is reserved until checkout or the hold expires
+    private void holdStock(Long userId, Product product, int quantity) {
+        if (inventoryService.isEnabled() && !inventoryService.hold(userId, product.getProductId(), quantity)) {
+            throw new APIException("Only " + inventoryService.available(product.getProductId()) + " of "
+                    + product.getProductName() + " can be reserved right now");
         }
-
-        Cart cart = new Cart();
-        cart.setTotalPrice(0.00);
-        cart.setUser(authUtil.loggedInUser());
-        return cartRepository.save(cart);
     }
 
-    @Override
-    public void updateProductInCarts(Long cartId, Long productId) {
-        // Fetch cart
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        // Fetch product
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        // Fetch cart item for this product
-        CartItem cartItem = cartItemRepository.findCartItemByCartIdAndProductId(cartId, productId);
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!");
+    private CartDeltaDTO toDelta(Long cartId, CartLine cartLine, Product product, boolean fullCart) {
+        CartDeltaDTO delta = new CartDeltaDTO();
+        delta.setCartId(cartId);
+        delta.setTotalPrice(cartStore.getTotalPrice(cartId));
+        delta.setItem(cartMapper.toDto(new CartItem(cartLine.cartItemId(), null, product,
+                cartLine.quantity(), cartLine.discount(), cartLine.productPrice())));
+        if (fullCart) {
+            Cart cart = cartStore.loadCart(cartId);
+            if (cart != null) {
+                delta.setCart(cartMapper.toDto(cart));
+            }
         }
-
-        // Recalculate cart price: remove old product price, apply updated price
-        double updatedTotal = cart.getTotalPrice()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
-
-        // Update cart item with new product details
-        cartItem.setProductPrice(product.getSpecialPrice());
-        cartItem.setDiscount(product.getDiscount()); // keep discount in sync
-
-        // Add new updated product price
-        updatedTotal += cartItem.getProductPrice() * cartItem.getQuantity();
-
-        // Save changes
-        cart.setTotalPrice(updatedTotal);
-        cartItemRepository.save(cartItem);
-        cartRepository.save(cart);
+        return delta;
     }
 
     @Transactional
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
 
-        String emailId = authUtil.loggedInEmail();
-
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
-        if (existingCart == null) {
-            existingCart = new Cart();
-            existingCart.setTotalPrice(0.00);
-            existingCart.setUser(authUtil.loggedInUser());
-            existingCart = cartRepository.save(existingCart);
-        } else {
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
-        }
-
-        double totalPrice = 0.00;
+        Long userId = authUtil.loggedInUserId();
+        Long cartId = cartStore.findCartId(userId, true);
 
+        // One line per product, repeated entries add up
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (CartItemDTO cartItemDTO : cartItems) {
+            quantities.merge(cartItemDTO.getProduct().getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+        }
 
-            // CHANGE HERE ------------
-            Long productId = cartItemDTO.getProduct().getProductId();
-            // -------------------------
+        // All products in one query instead of one findById per line
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        List<CartLine> lines = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            lines.add(new CartLine(null, productId, entry.getValue(), product.getSpecialPrice(), product.getDiscount()));
+        }
 
-            Integer quantity = cartItemDTO.getQuantity();
+        // The new cart replaces every hold of the old one
+        if (inventoryService.isEnabled()) {
+            inventoryService.releaseAll(userId);
+            lines.forEach(line -> holdStock(userId, products.get(line.productId()), line.quantity()));
+        }
 
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+        cartStore.replaceLines(cartId, lines);
 
-            totalPrice += product.getSpecialPrice() * quantity;
+        return "Cart created/updated with the new items successfully";
+    }
 
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
+    @Override
+    public long removeProductFromCarts(Long productId) {
+        // Each chunk commits on its own, so memory and lock time stay bounded however many carts hold the product
+        cartStore.productRemoved(productId);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long removed = 0;
+        List<Long> cartItemIds;
+        do {
+            cartItemIds = cartItemRepository.findIdsByProductId(productId, 0L, Limit.of(cleanupChunkSize));
+            if (!cartItemIds.isEmpty()) {
+                List<Long> chunk = cartItemIds;
+                removed += transaction.execute(status -> {
+                    cartRepository.subtractCartItemsFromTotals(chunk);
+                    return cartItemRepository.deleteAllByCartItemIds(chunk);
+                });
+            }
+        } while (cartItemIds.size() == cleanupChunkSize);
+
+        meterRegistry.counter("cart.items.removed", "reason", "product_deleted").increment(removed);
+        return removed;
+    }
 
-            cartItemRepository.save(cartItem);
+    // Lines added since removeProductFromCarts ran, taken out in the caller's transaction along with the product
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public long removeRemainingCartItems(Long productId) {
+        List<Long> cartItemIds = cartItemRepository.findIdsByProductId(productId, 0L, Limit.unlimited());
+        if (cartItemIds.isEmpty()) {
+            return 0;
         }
-
-        existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
-
-        return "Cart created/updated with the new items successfully";
+        cartRepository.subtractCartItemsFromTotals(cartItemIds);
+        long removed = cartItemRepository.deleteAllByCartItemIds(cartItemIds);
+        meterRegistry.counter("cart.items.removed", "reason", "product_deleted").increment(removed);
+        return removed;
     }
 }
@@ -8,6 +8,7 @@ import java.util.List;
 
 public interface CategoryService {
     CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize,String sortBy,String sortOrder);
+    CategoryResponse getAllCategoriesByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, boolean includeCount);
     CategoryDTO createCategory(CategoryDTO categoryDTO);
 
     CategoryDTO deleteCategory(Long categoryId);
@@ -3,11 +3,17 @@ package EcommerceProject.service;
 import EcommerceProject.Exception.APIException;
 import EcommerceProject.Exception.ResourceNotFoundException;
 import EcommerceProject.Model.Category;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.mapper.CategoryMapper;
 import EcommerceProject.payload.CategoryDTO;
 import EcommerceProject.payload.CategoryResponse;
 import EcommerceProject.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import EcommerceProject.repositories.KeysetQueryExecutor;
+import EcommerceProject.repositories.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,9 +28,14 @@ public class CategoryServiceImpl implements CategoryService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private KeysetQueryExecutor keysetQueryExecutor;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_PAGES_CACHE,
+            key = "{#pageNumber, #pageSize, #sortBy, #sortOrder}")
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
@@ -35,7 +46,7 @@ public class CategoryServiceImpl implements CategoryService {
         List<Category> categories = categoryPage.getContent();
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toDto)
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
@@ -49,6 +60,29 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    public CategoryResponse getAllCategoriesByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, boolean includeCount) {
+        KeysetSlice<Category> slice = keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                sortBy, sortOrder.equalsIgnoreCase("asc"), cursor, pageSize);
+
+        List<CategoryDTO> categoryDTOS = slice.content().stream()
+                .map(categoryMapper::toDto)
+                .toList();
+
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categoryDTOS);
+        categoryResponse.setPageSize(pageSize);
+        categoryResponse.setLastPage(slice.lastPage());
+        categoryResponse.setNextCursor(slice.nextCursor());
+        if (includeCount) {
+            long totalElements = categoryRepository.count();
+            categoryResponse.setTotalElements(totalElements);
+            categoryResponse.setTotalpages((int) Math.ceil((double) totalElements / pageSize));
+        }
+        return categoryResponse;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES_CACHE, allEntries = true)
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         // Check if category already exists
         Category existingCategory = categoryRepository.findByCategoryName(categoryDTO.getCategoryName());
@@ -57,20 +91,26 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         // Map DTO to Entity and save
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         Category savedCategory = categoryRepository.save(category);
 
         // Return DTO
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
+    // Deleting a category cascades to its products
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES_CACHE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, allEntries = true)
+    })
     public CategoryDTO deleteCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        return categoryMapper.toDto(category);
     }
 
 //    @Override
@@ -83,6 +123,10 @@ public class CategoryServiceImpl implements CategoryService {
 //    }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES_CACHE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true)
+    })
     public CategoryDTO updateCategory(CategoryDTO categoryDTO, Long categoryId) {
         Category existingCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
@@ -92,7 +136,7 @@ public class CategoryServiceImpl implements CategoryService {
         // set other fields if they exist in DTO
 
         Category updatedCategory = categoryRepository.save(existingCategory);
-        return modelMapper.map(updatedCategory, CategoryDTO.class);
+        return categoryMapper.toDto(updatedCategory);
     }
 
 }
@@ -0,0 +1,12 @@
+package EcommerceProject.service;
+
+import EcommerceProject.payload.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    long exportOrders(ExportFormat format, OutputStream out) throws IOException;
+
+    long exportProducts(ExportFormat format, OutputStream out) throws IOException;
+}
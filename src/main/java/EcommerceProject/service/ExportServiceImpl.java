@@ -0,0 +1,135 @@
+package EcommerceProject.service;
+
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.repositories.OrderExportRow;
+import EcommerceProject.repositories.OrderRepository;
+import EcommerceProject.repositories.ProductExportRow;
+import EcommerceProject.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables to the caller row by row. Rows come from a forward-only cursor of scalar
+ * projections inside one read-only transaction and are written straight to the output, so memory
+ * stays flat however many rows there are.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final String[] ORDER_COLUMNS = {"orderId", "email", "orderDate", "createdAt", "orderStatus",
+            "totalAmount", "addressId", "paymentMethod", "pgName", "pgPaymentId", "pgStatus"};
+
+    private static final String[] PRODUCT_COLUMNS = {"productId", "productName", "description", "quantity", "price",
+            "discount", "specialPrice", "image", "categoryId", "categoryName", "sellerId"};
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public long exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        return export("orders", format, out, ORDER_COLUMNS, orderRepository::streamForExport, row -> new Object[]{
+                row.getOrderId(), row.getEmail(), row.getOrderDate(), row.getCreatedAt(), row.getOrderStatus(),
+                row.getTotalAmount(), row.getAddressId(), row.getPaymentMethod(), row.getPgName(),
+                row.getPgPaymentId(), row.getPgStatus()});
+    }
+
+    @Override
+    public long exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        return export("products", format, out, PRODUCT_COLUMNS, productRepository::streamForExport, row -> new Object[]{
+                row.getProductId(), row.getProductName(), row.getDescription(), row.getQuantity(), row.getPrice(),
+                row.getDiscount(), row.getSpecialPrice(), row.getImage(), row.getCategoryId(), row.getCategoryName(),
+                row.getSellerId()});
+    }
+
+    private <T> long export(String name, ExportFormat format, OutputStream out, String[] columns,
+                            Supplier<Stream<T>> query, Function<T, Object[]> values) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, columns);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Read-only also keeps PostgreSQL on a server-side cursor instead of buffering the result
+        transaction.setReadOnly(true);
+        Long rows;
+        try {
+            rows = transaction.execute(status -> {
+                long written = 0;
+                try (Stream<T> stream = query.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] row = values.apply(iterator.next());
+                        if (format == ExportFormat.CSV) {
+                            writeCsvLine(writer, row);
+                        } else {
+                            writeJsonLine(writer, columns, row);
+                        }
+                        written++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return written;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is already closed
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Exported {} {} as {}", rows, name, format);
+        return rows;
+    }
+
+    private void writeJsonLine(Writer writer, String[] columns, Object[] row) throws IOException {
+        Map<String, Object> object = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            object.put(columns[i], row[i]);
+        }
+        writer.write(objectMapper.writeValueAsString(object));
+        writer.write('\n');
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (row[i] != null) {
+                writer.write(csvField(row[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,12 @@
+package EcommerceProject.service;
+
+public interface InstanceLeaseService {
+
+    // Identifies this running instance, e.g. as the owner of a claimed row
+    String instanceId();
+
+    // Takes the named lease for this instance and keeps it renewed; fails when another live instance holds it
+    void acquire(String name);
+
+    boolean holds(String name);
+}
@@ -0,0 +1,100 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.InstanceLease;
+import EcommerceProject.repositories.InstanceLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leases in the instance_leases table. A lease is renewed every ecom.lease.renewIntervalMs and lapses
+ * ecom.lease.ttlSeconds after the last renewal, so the lease of an instance that died is free again soon after.
+ */
+@Service
+public class InstanceLeaseServiceImpl implements InstanceLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceLeaseServiceImpl.class);
+
+    @Autowired
+    private InstanceLeaseRepository instanceLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ecom.lease.ttlSeconds:30}")
+    private long ttlSeconds;
+
+    // The pod name on Kubernetes; the suffix tells a restarted pod from its previous run
+    private final String instanceId = System.getenv().getOrDefault("HOSTNAME", "instance")
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String instanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public void acquire(String name) {
+        if (!claim(name)) {
+            InstanceLease lease = instanceLeaseRepository.findById(name).orElse(null);
+            throw new IllegalStateException("Lease " + name + " is held by " + (lease != null ? lease.getHolder() : "another instance")
+                    + (lease != null ? " until " + lease.getExpiresAt() : "") + "; only one instance may run in this mode");
+        }
+        held.add(name);
+        logger.info("Instance {} holds lease {}", instanceId, name);
+    }
+
+    @Override
+    public boolean holds(String name) {
+        return held.contains(name);
+    }
+
+    @Scheduled(fixedDelayString = "${ecom.lease.renewIntervalMs:10000}")
+    public void renew() {
+        for (String name : held) {
+            try {
+                if (!claim(name)) {
+                    held.remove(name);
+                    logger.error("Instance {} lost lease {} to another instance", instanceId, name);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not renew lease {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        for (String name : held) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                        instanceLeaseRepository.release(name, instanceId));
+            } catch (RuntimeException e) {
+                logger.warn("Could not release lease {}: {}", name, e.getMessage());
+            }
+        }
+        held.clear();
+    }
+
+    private boolean claim(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = new TransactionTemplate(transactionManager).execute(status -> {
+            instanceLeaseRepository.createIfMissing(name);
+            return instanceLeaseRepository.claim(name, instanceId, now, now.plusSeconds(ttlSeconds));
+        });
+        return claimed != null && claimed == 1;
+    }
+}
@@ -0,0 +1,23 @@
+package EcommerceProject.service;
+
+import java.util.Map;
+
+public interface InventoryService {
+    boolean isEnabled();
+
+    boolean hold(Long userId, Long productId, int quantity);
+
+    void release(Long userId, Long productId, int quantity);
+
+    void releaseAll(Long userId);
+
+    Map<Long, Integer> consume(Long userId, Map<Long, Integer> quantities);
+
+    int available(Long productId);
+
+    void refresh(Long productId);
+
+    void sweepExpiredHolds();
+
+    void reconcile();
+}
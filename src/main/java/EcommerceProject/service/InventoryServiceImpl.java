@@ -0,0 +1,359 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.ReservationType;
+import EcommerceProject.Model.StockReservation;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.StockReservationRepository;
+import EcommerceProject.repositories.WatermarkRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grants time-limited stock holds from a striped in-memory counter per product, so flash-sale traffic
+ * never queues on the product row. Every change is appended to the stock_reservations ledger; a sweeper
+ * expires stale holds and a reconciler folds consumed stock back into products.quantity in bulk.
+ * Enabled with ecom.inventory.holds.enabled, otherwise checkout takes stock from the product rows directly.
+ * Holds and counters live in this instance only, so it takes the inventory-holds instance lease at startup.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    static final String WATERMARK = "stock_reservations";
+
+    static final String LEASE = "inventory-holds";
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private InstanceLeaseService instanceLeaseService;
+
+    @Value("${ecom.inventory.holds.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ecom.inventory.holdTtlSeconds:600}")
+    private long holdTtlSeconds;
+
+    @Value("${ecom.inventory.stripes:8}")
+    private int stripes;
+
+    @Value("${ecom.inventory.reconcileChunkSize:5000}")
+    private int reconcileChunkSize;
+
+    // Free stock per product: products.quantity, minus consumption not yet reconciled, minus active holds
+    private final Map<Long, StripedStock> stock = new ConcurrentHashMap<>();
+
+    private final Map<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+
+    private record HoldKey(Long userId, Long productId) {
+    }
+
+    private record Hold(int quantity, LocalDateTime expiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            instanceLeaseService.acquire(LEASE);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean hold(Long userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        StripedStock counter = counter(productId);
+        if (!counter.tryTake(quantity)) {
+            return false;
+        }
+
+        // Adding to a hold renews it for the whole quantity
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(holdTtlSeconds);
+        HoldKey key = new HoldKey(userId, productId);
+        holds.merge(key, new Hold(quantity, expiresAt), (held, added) -> new Hold(held.quantity() + quantity, expiresAt));
+        stockReservationRepository.save(new StockReservation(userId, productId, quantity, ReservationType.HOLD, expiresAt));
+
+        onRollback(() -> {
+            if (takeFromHold(key, quantity) > 0) {
+                counter.give(quantity);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void release(Long userId, Long productId, int quantity) {
+        HoldKey key = new HoldKey(userId, productId);
+        int released = takeFromHold(key, quantity);
+        if (released == 0) {
+            return;
+        }
+        StripedStock counter = counter(productId);
+        counter.give(released);
+        stockReservationRepository.save(new StockReservation(userId, productId, released, ReservationType.RELEASE, null));
+
+        onRollback(() -> {
+            if (counter.tryTake(released)) {
+                holds.merge(key, new Hold(released, LocalDateTime.now().plusSeconds(holdTtlSeconds)),
+                        (held, restored) -> new Hold(held.quantity() + released, held.expiresAt()));
+            }
+        });
+    }
+
+    @Override
+    public void releaseAll(Long userId) {
+        List<HoldKey> keys = holds.keySet().stream()
+                .filter(key -> key.userId().equals(userId))
+                .toList();
+        for (HoldKey key : keys) {
+            release(userId, key.productId(), Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> consume(Long userId, Map<Long, Integer> quantities) {
+        // Detach the user's holds first so the sweeper cannot expire them halfway through
+        Map<Long, Hold> taken = new HashMap<>();
+        for (Long productId : quantities.keySet()) {
+            Hold hold = holds.remove(new HoldKey(userId, productId));
+            if (hold != null) {
+                taken.put(productId, hold);
+            }
+        }
+
+        // Lines added before their hold, or whose hold expired, are topped up from free stock
+        Map<Long, Integer> toppedUp = new HashMap<>();
+        Map<Long, Integer> shortages = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int held = heldQuantity(taken.get(productId));
+            int missing = entry.getValue() - held;
+            if (missing <= 0) {
+                continue;
+            }
+            StripedStock counter = counter(productId);
+            if (counter.tryTake(missing)) {
+                toppedUp.put(productId, missing);
+            } else {
+                shortages.put(productId, held + counter.available());
+            }
+        }
+
+        if (!shortages.isEmpty()) {
+            toppedUp.forEach((productId, quantity) -> counter(productId).give(quantity));
+            taken.forEach((productId, hold) -> restoreHold(new HoldKey(userId, productId), hold));
+            return shortages;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(holdTtlSeconds);
+        List<StockReservation> entries = new ArrayList<>();
+        Map<Long, Integer> surplus = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            int topUp = toppedUp.getOrDefault(productId, 0);
+            int excess = heldQuantity(taken.get(productId)) + topUp - quantity;
+            if (topUp > 0) {
+                entries.add(new StockReservation(userId, productId, topUp, ReservationType.HOLD, expiresAt));
+            }
+            if (excess > 0) {
+                counter(productId).give(excess);
+                surplus.put(productId, excess);
+                entries.add(new StockReservation(userId, productId, excess, ReservationType.RELEASE, null));
+            }
+            entries.add(new StockReservation(userId, productId, quantity, ReservationType.CONSUME, null));
+        }
+        // Written in the caller's transaction, so the order and its stock entries commit together
+        stockReservationRepository.saveAll(entries);
+
+        onRollback(() -> {
+            toppedUp.forEach((productId, quantity) -> counter(productId).give(quantity));
+            surplus.forEach((productId, quantity) -> counter(productId).tryTake(quantity));
+            taken.forEach((productId, hold) -> restoreHold(new HoldKey(userId, productId), hold));
+        });
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public int available(Long productId) {
+        return counter(productId).available();
+    }
+
+    @Override
+    public void refresh(Long productId) {
+        // Once committed, so the counter is rebuilt from the new quantity and a rollback keeps the current one
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stock.remove(productId);
+                }
+            });
+        } else {
+            stock.remove(productId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.inventory.sweepIntervalMs:5000}")
+    public void sweepExpiredHolds() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> entries = new ArrayList<>();
+        for (Map.Entry<HoldKey, Hold> entry : holds.entrySet()) {
+            HoldKey key = entry.getKey();
+            Hold hold = entry.getValue();
+            // Only removes the hold if nobody renewed or consumed it meanwhile
+            if (hold.expiresAt().isBefore(now) && holds.remove(key, hold)) {
+                counter(key.productId()).give(hold.quantity());
+                entries.add(new StockReservation(key.userId(), key.productId(), hold.quantity(), ReservationType.EXPIRE, null));
+            }
+        }
+        if (!entries.isEmpty()) {
+            stockReservationRepository.saveAll(entries);
+            logger.info("Expired {} stock holds", entries.size());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.inventory.reconcileIntervalMs:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<Long> products = new HashSet<>();
+        Integer entries;
+        do {
+            entries = transaction.execute(status -> {
+                // A second reconciler waits on the row and then only finds the entries still unreconciled
+                watermarkRepository.lock(WATERMARK);
+                List<Object[]> rows = stockReservationRepository.findUnreconciled(Limit.of(reconcileChunkSize));
+                List<Long> reservationIds = new ArrayList<>(rows.size());
+                Map<Long, Long> consumed = new HashMap<>();
+                for (Object[] row : rows) {
+                    reservationIds.add((Long) row[0]);
+                    consumed.merge((Long) row[1], ((Number) row[2]).longValue(), Long::sum);
+                }
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                if (stockReservationRepository.markReconciled(reservationIds) != reservationIds.size()) {
+                    throw new IllegalStateException("Stock reservations were reconciled concurrently");
+                }
+                consumed.forEach(productRepository::applyConsumedStock);
+                products.addAll(consumed.keySet());
+                return rows.size();
+            });
+        } while (entries != null && entries == reconcileChunkSize);
+
+        if (!products.isEmpty()) {
+            Cache productCache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+            products.forEach(productCache::evict);
+            cacheManager.getCache(CacheConfig.PRODUCT_PAGES_CACHE).clear();
+            logger.info("Reconciled consumed stock of {} products", products.size());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildHolds() {
+        if (!enabled) {
+            return;
+        }
+        // Holds live in memory only, the ledger brings them back after a restart
+        List<Object[]> openHolds = stockReservationRepository.findOpenHolds();
+        for (Object[] row : openHolds) {
+            LocalDateTime expiresAt = row[3] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[3];
+            holds.put(new HoldKey((Long) row[0], (Long) row[1]), new Hold(((Number) row[2]).intValue(), expiresAt));
+        }
+        logger.info("Restored {} stock holds from the ledger", openHolds.size());
+    }
+
+    private StripedStock counter(Long productId) {
+        return stock.computeIfAbsent(productId, this::loadStock);
+    }
+
+    private StripedStock loadStock(Long productId) {
+        Long onShelf = stockReservationRepository.findStockOnShelf(productId);
+        long held = holds.entrySet().stream()
+                .filter(entry -> entry.getKey().productId().equals(productId))
+                .mapToLong(entry -> entry.getValue().quantity())
+                .sum();
+        return new StripedStock((int) Math.max(0, (onShelf != null ? onShelf : 0) - held), stripes);
+    }
+
+    private int takeFromHold(HoldKey key, int quantity) {
+        int[] taken = {0};
+        holds.computeIfPresent(key, (k, hold) -> {
+            taken[0] = Math.min(quantity, hold.quantity());
+            int remaining = hold.quantity() - taken[0];
+            return remaining > 0 ? new Hold(remaining, hold.expiresAt()) : null;
+        });
+        return taken[0];
+    }
+
+    private void restoreHold(HoldKey key, Hold hold) {
+        holds.merge(key, hold, (current, restored) ->
+                new Hold(current.quantity() + restored.quantity(), current.expiresAt()));
+    }
+
+    private static int heldQuantity(Hold hold) {
+        return hold != null ? hold.quantity() : 0;
+    }
+
+    // In-memory changes follow the ledger entries they were written with
+    private static void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+}
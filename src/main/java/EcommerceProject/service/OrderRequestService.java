@@ -0,0 +1,10 @@
+package EcommerceProject.service;
+
+import EcommerceProject.payload.OrderRequestDTO;
+import EcommerceProject.payload.OrderRequestStatusDTO;
+
+public interface OrderRequestService {
+    OrderRequestStatusDTO submit(String emailId, String idempotencyKey, String paymentMethod, OrderRequestDTO orderRequestDTO);
+
+    OrderRequestStatusDTO getStatus(String emailId, Long requestId);
+}
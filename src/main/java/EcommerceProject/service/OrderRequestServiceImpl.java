@@ -0,0 +1,292 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.APIException;
+import EcommerceProject.Exception.IdempotencyKeyReusedException;
+import EcommerceProject.Exception.InsufficientStockException;
+import EcommerceProject.Exception.ResourceNotFoundException;
+import EcommerceProject.Exception.ServiceBusyException;
+import EcommerceProject.Model.OrderRequest;
+import EcommerceProject.Model.OrderRequestStatus;
+import EcommerceProject.mapper.OrderMapper;
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.payload.OrderRequestDTO;
+import EcommerceProject.payload.OrderRequestStatusDTO;
+import EcommerceProject.repositories.AddressRepository;
+import EcommerceProject.repositories.CartRepository;
+import EcommerceProject.repositories.OrderRepository;
+import EcommerceProject.repositories.OrderRequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts checkouts for asynchronous placement. A request is stored under the client's idempotency key
+ * and queued; a fixed pool of workers drains the queue in batches and places each order in its own
+ * transaction through {@link OrderService#placeOrder}. Repeating a key returns the stored request.
+ * A worker leases the requests it takes for ecom.order.leaseSeconds. Only expired leases are queued again,
+ * so a request placed by a live instance is never run twice.
+ */
+@Service
+public class OrderRequestServiceImpl implements OrderRequestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRequestServiceImpl.class);
+
+    @Autowired
+    private OrderRequestRepository orderRequestRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InstanceLeaseService instanceLeaseService;
+
+    @Value("${ecom.order.asyncWorkers:4}")
+    private int workers;
+
+    @Value("${ecom.order.asyncQueueCapacity:1000}")
+    private int queueCapacity;
+
+    @Value("${ecom.order.asyncBatchSize:20}")
+    private int batchSize;
+
+    @Value("${ecom.order.leaseSeconds:120}")
+    private long leaseSeconds;
+
+    private BlockingQueue<Long> queue;
+
+    private ExecutorService executor;
+
+    // Queued or running ids, so the requeue job never hands a request to two workers
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public OrderRequestStatusDTO submit(String emailId, String idempotencyKey, String paymentMethod, OrderRequestDTO orderRequestDTO) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 100) {
+            throw new APIException("Idempotency-Key must be 1 to 100 characters");
+        }
+
+        String requestHash = requestHash(paymentMethod, orderRequestDTO);
+        Optional<OrderRequest> existing = orderRequestRepository.findByEmailAndIdempotencyKey(emailId, idempotencyKey);
+        if (existing.isPresent()) {
+            return describe(sameRequest(existing.get(), requestHash));
+        }
+
+        // Reject what can be checked cheaply now; stock and payment are settled by the worker
+        if (cartRepository.findCartIdByEmail(emailId) == null) {
+            throw new ResourceNotFoundException("Cart", "email", emailId);
+        }
+        if (!addressRepository.existsById(orderRequestDTO.getAddressId())) {
+            throw new ResourceNotFoundException("Address", "addressId", orderRequestDTO.getAddressId());
+        }
+        if (queue.remainingCapacity() == 0) {
+            throw new ServiceBusyException("Too many orders are waiting, please retry shortly");
+        }
+
+        OrderRequest request = new OrderRequest(null, idempotencyKey, emailId, requestHash, orderRequestDTO.getAddressId(),
+                paymentMethod, orderRequestDTO.getPgName(), orderRequestDTO.getPgPaymentId(), orderRequestDTO.getPgStatus(),
+                orderRequestDTO.getPgResponseMessage(), OrderRequestStatus.QUEUED, null, null, null, null, LocalDateTime.now(), null);
+        try {
+            request = orderRequestRepository.save(request);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent retry with the same key got there first
+            return orderRequestRepository.findByEmailAndIdempotencyKey(emailId, idempotencyKey)
+                    .map(stored -> describe(sameRequest(stored, requestHash)))
+                    .orElseThrow(() -> e);
+        }
+
+        enqueue(request.getRequestId());
+        return toDto(request);
+    }
+
+    @Override
+    public OrderRequestStatusDTO getStatus(String emailId, Long requestId) {
+        OrderRequest request = orderRequestRepository.findByRequestIdAndEmail(requestId, emailId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order request", "requestId", requestId));
+        return describe(request);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        requeueWaiting();
+    }
+
+    // Picks up requests that found the queue full, were accepted before a restart, or whose instance stopped
+    @Scheduled(fixedDelayString = "${ecom.order.requeueIntervalMs:30000}")
+    public void requeueWaiting() {
+        Integer expired = new TransactionTemplate(transactionManager).execute(status ->
+                orderRequestRepository.requeueExpired(LocalDateTime.now()));
+        if (expired != null && expired > 0) {
+            logger.info("Requeued {} order requests whose lease expired", expired);
+        }
+        for (Long requestId : orderRequestRepository.findIdsByStatusIn(List.of(OrderRequestStatus.QUEUED))) {
+            if (!enqueue(requestId)) {
+                break;
+            }
+        }
+    }
+
+    private boolean enqueue(Long requestId) {
+        if (!inFlight.add(requestId)) {
+            return true;
+        }
+        if (!queue.offer(requestId)) {
+            inFlight.remove(requestId);
+            return false;
+        }
+        return true;
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Order worker failed on a batch of {} requests: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.forEach(inFlight::remove);
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Long> batch) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        String owner = instanceLeaseService.instanceId();
+        // One statement to lease the batch and one to load it, then one transaction per order
+        List<OrderRequest> requests = transaction.execute(status -> {
+            orderRequestRepository.markProcessing(batch, owner, LocalDateTime.now().plusSeconds(leaseSeconds));
+            return orderRequestRepository.findAllById(batch);
+        });
+
+        for (OrderRequest request : requests) {
+            if (request.getStatus() != OrderRequestStatus.PROCESSING || !owner.equals(request.getOwner())) {
+                continue;
+            }
+            try {
+                Boolean placed = transaction.execute(status -> {
+                    // Skipped if the lease ran out and the request went to another worker meanwhile
+                    if (orderRequestRepository.renewLease(request.getRequestId(), owner, LocalDateTime.now().plusSeconds(leaseSeconds)) == 0) {
+                        return false;
+                    }
+                    OrderDTO order = orderService.placeOrder(request.getEmail(), request.getAddressId(),
+                            request.getPaymentMethod(), request.getPgName(), request.getPgPaymentId(),
+                            request.getPgStatus(), request.getPgResponseMessage());
+                    // Committed with the order, so a placed order is never run again
+                    finish(request, owner, OrderRequestStatus.COMPLETED, order.getOrderId(), null);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(placed)) {
+                    logger.warn("Order request {} was taken over by another worker", request.getRequestId());
+                }
+            } catch (RuntimeException e) {
+                transaction.executeWithoutResult(status ->
+                        finish(request, owner, OrderRequestStatus.FAILED, null, failureMessage(e)));
+            }
+        }
+    }
+
+    private void finish(OrderRequest request, String owner, OrderRequestStatus status, Long orderId, String message) {
+        if (orderRequestRepository.finish(request.getRequestId(), owner, status, orderId, message, LocalDateTime.now()) != 1) {
+            throw new IllegalStateException("Order request " + request.getRequestId() + " is no longer leased to " + owner);
+        }
+    }
+
+    private OrderRequest sameRequest(OrderRequest request, String requestHash) {
+        if (!requestHash.equals(request.getRequestHash())) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + request.getIdempotencyKey()
+                    + " was already used for a different checkout");
+        }
+        return request;
+    }
+
+    static String requestHash(String paymentMethod, OrderRequestDTO orderRequestDTO) {
+        String body = String.join("\n", String.valueOf(orderRequestDTO.getAddressId()), paymentMethod,
+                orderRequestDTO.getPgName(), orderRequestDTO.getPgPaymentId(), orderRequestDTO.getPgStatus(),
+                orderRequestDTO.getPgResponseMessage());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String failureMessage(RuntimeException e) {
+        String message = e instanceof InsufficientStockException shortage
+                ? String.join("; ", shortage.getShortages().values())
+                : e.getMessage();
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    // Completed requests carry the placed order, the same answer for the original call and any retry
+    private OrderRequestStatusDTO describe(OrderRequest request) {
+        OrderRequestStatusDTO dto = toDto(request);
+        if (request.getOrderId() != null) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    orderRepository.findById(request.getOrderId()).map(orderMapper::toDto).ifPresent(dto::setOrder));
+        }
+        return dto;
+    }
+
+    private OrderRequestStatusDTO toDto(OrderRequest request) {
+        return new OrderRequestStatusDTO(request.getRequestId(), request.getIdempotencyKey(), request.getStatus().name(),
+                request.getOrderId(), request.getMessage(), request.getCreatedAt(), request.getFinishedAt(), null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
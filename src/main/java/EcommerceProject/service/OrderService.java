@@ -10,6 +10,8 @@ public interface OrderService {
 
     OrderResponse getAllOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    OrderResponse getAllOrdersByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, boolean includeCount);
+
     OrderDTO updateOrder(Long orderId, String status);
 
     OrderResponse getAllSellerOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
@@ -1,29 +1,43 @@
 package EcommerceProject.service;
 
 import EcommerceProject.Exception.APIException;
+import EcommerceProject.Exception.InsufficientStockException;
 import EcommerceProject.Exception.ResourceNotFoundException;
 import EcommerceProject.Model.*;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.mapper.OrderMapper;
 import EcommerceProject.payload.OrderDTO;
 import EcommerceProject.payload.OrderItemDTO;
 import EcommerceProject.payload.OrderResponse;
 import EcommerceProject.repositories.*;
 import EcommerceProject.util.AuthUtil;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+
     @Autowired
     CartRepository cartRepository;
 
@@ -40,10 +54,13 @@ public class OrderServiceImpl implements OrderService {
     PaymentRepository paymentRepository;
 
     @Autowired
-    CartService cartService;
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    CartStore cartStore;
 
     @Autowired
-    ModelMapper modelMapper;
+    OrderMapper orderMapper;
 
     @Autowired
     ProductRepository productRepository;
@@ -51,20 +68,87 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     AuthUtil authUtil;
 
+    @Autowired
+    KeysetQueryExecutor keysetQueryExecutor;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    OutboxService outboxService;
+
+    @Autowired
+    SellerOrderRepository sellerOrderRepository;
+
+    @Autowired
+    WatermarkRepository watermarkRepository;
+
+    @Autowired
+    AnalyticsService analyticsService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @Override
     @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        if (cart == null) {
+        Long cartId = cartRepository.findCartIdByEmail(emailId);
+        if (cartId == null) {
             throw new ResourceNotFoundException("Cart", "email", emailId);
         }
 
+        // Carts kept outside the database are written to it before checkout reads them
+        cartStore.materialize(cartId);
+
+        // Locking first also loads every product fresh, ahead of the cart lines that point at them.
+        // With stock holds the product rows are only written by the reconciler, so nothing to lock.
+        boolean holds = inventoryService.isEnabled();
+        if (!holds) {
+            productRepository.lockProductsInCart(cartId);
+        }
+
+        Cart cart = cartRepository.findById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart", "email", emailId));
+
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
 
+        List<CartItem> cartItems = cart.getCartItems();
+        if (cartItems.isEmpty()) {
+            throw new APIException("Cart is empty");
+        }
+
+        Map<String, String> shortages = new LinkedHashMap<>();
+        Map<Long, Integer> stock = null;
+        if (holds) {
+            // Turns the user's holds into consumed stock, topping up lines that are not fully held
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            cartItems.forEach(item -> quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum));
+            Map<Long, Integer> available = inventoryService.consume(cart.getUser().getUserId(), quantities);
+            for (CartItem item : cartItems) {
+                Integer left = available.get(item.getProduct().getProductId());
+                if (left != null) {
+                    shortages.put(String.valueOf(item.getProduct().getProductId()), "Only " + left + " of "
+                            + item.getProduct().getProductName() + " left, " + item.getQuantity() + " requested");
+                }
+            }
+        } else {
+            // The products are locked, so this check holds until the stock update below
+            stock = findStockInCart(cartId);
+            shortages = shortages(stock, cartItems);
+        }
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
+
         Order order = new Order();
         order.setEmail(emailId);
-        order.setOrderDate(LocalDate.now());
+        LocalDateTime now = LocalDateTime.now();
+        order.setOrderDate(now.toLocalDate());
+        order.setCreatedAt(now);
         order.setTotalAmount(cart.getTotalPrice());
         order.setOrderStatus("Accepted");
         order.setAddress(address);
@@ -76,11 +160,6 @@ public class OrderServiceImpl implements OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
-        List<CartItem> cartItems = cart.getCartItems();
-        if (cartItems.isEmpty()) {
-            throw new APIException("Cart is empty");
-        }
-
         List<OrderItem> orderItems = new ArrayList<>();
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
@@ -92,30 +171,119 @@ public class OrderServiceImpl implements OrderService {
             orderItems.add(orderItem);
         }
 
+        // Order lines go out as one JDBC batch
         orderItems = orderItemRepository.saveAll(orderItems);
 
-        cart.getCartItems().forEach(item -> {
-            int quantity = item.getQuantity();
-            Product product = item.getProduct();
+        if (!holds) {
+            // One statement for the stock of every line, still conditional as a last guard against overselling
+            if (productRepository.decrementStockForCart(cartId) != cartItems.size()) {
+                Map<String, String> lost = shortages(findStockInCart(cartId), cartItems);
+                if (!lost.isEmpty()) {
+                    throw new InsufficientStockException(lost);
+                }
+                throw new APIException("Stock changed while placing the order, please try again");
+            }
+            cartItems.forEach(item ->
+                    cacheManager.getCache(CacheConfig.PRODUCT_CACHE).evict(item.getProduct().getProductId()));
+            // Listing pages show the stock too; like the evictions above this applies on commit
+            cacheManager.getCache(CacheConfig.PRODUCT_PAGES_CACHE).clear();
+        }
 
-            // Reduce stock quantity
-            product.setQuantity(product.getQuantity() - quantity);
+        // Indexes the order under every seller in the cart, read before the cart lines are deleted
+        sellerOrderRepository.insertForCart(savedOrder.getOrderId(), cartId);
 
-            // Save product back to the database
-            productRepository.save(product);
+        recordOrderPlaced(savedOrder, orderItems);
+        analyticsService.recordOrder(savedOrder, orderItems);
 
-            // Remove items from cart
-            cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
-        });
+        // Empty the cart
+        cartItemRepository.deleteAllByCartId(cartId);
+        cartRepository.updateTotalPrice(cartId, 0.00);
 
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+        OrderDTO orderDTO = orderMapper.toDto(savedOrder);
+        Map<Long, Integer> stockBefore = stock;
+        orderItems.forEach(item -> {
+            // The stock was taken in bulk (or through the ledger), so the loaded products may not show what is left
+            OrderItemDTO orderItemDTO = orderMapper.toDto(item);
+            int before = stockBefore != null ? stockBefore.get(item.getProduct().getProductId()) : item.getProduct().getQuantity();
+            orderItemDTO.getProduct().setQuantity(before - item.getQuantity());
+            orderDTO.getOrderItems().add(orderItemDTO);
+        });
 
         orderDTO.setAddressId(addressId);
 
         return orderDTO;
     }
 
+    // Stock read from the database, not from products the persistence context may have loaded earlier
+    private Map<Long, Integer> findStockInCart(Long cartId) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object[] row : productRepository.findStockInCart(cartId)) {
+            stock.put((Long) row[0], (Integer) row[1]);
+        }
+        return stock;
+    }
+
+    private static Map<String, String> shortages(Map<Long, Integer> stock, List<CartItem> cartItems) {
+        Map<String, String> shortages = new LinkedHashMap<>();
+        for (CartItem item : cartItems) {
+            Product product = item.getProduct();
+            int left = stock.getOrDefault(product.getProductId(), 0);
+            if (left < item.getQuantity()) {
+                shortages.put(String.valueOf(product.getProductId()), "Only " + left + " of "
+                        + product.getProductName() + " left, " + item.getQuantity() + " requested");
+            }
+        }
+        return shortages;
+    }
+
+    // One event for the order and one for the stock it took, whatever the number of lines
+    private void recordOrderPlaced(Order order, List<OrderItem> orderItems) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        Map<Long, Integer> stockChanges = new LinkedHashMap<>();
+        for (OrderItem item : orderItems) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", item.getProduct().getProductId());
+            line.put("quantity", item.getQuantity());
+            line.put("price", item.getOrderedProductPrice());
+            items.add(line);
+            stockChanges.merge(item.getProduct().getProductId(), -item.getQuantity(), Integer::sum);
+        }
+
+        Map<String, Object> placed = new LinkedHashMap<>();
+        placed.put("orderId", order.getOrderId());
+        placed.put("email", order.getEmail());
+        placed.put("orderDate", order.getOrderDate().toString());
+        placed.put("totalAmount", order.getTotalAmount());
+        placed.put("items", items);
+        outboxService.record("ORDER", order.getOrderId(), "ORDER_PLACED", placed);
+
+        Map<String, Object> stock = new LinkedHashMap<>();
+        stock.put("reason", "order");
+        stock.put("orderId", order.getOrderId());
+        stock.put("changes", stockChanges);
+        outboxService.record("STOCK", order.getOrderId(), "STOCK_CHANGED", stock);
+    }
+
+    static final String SELLER_ORDERS_BACKFILL = "seller_orders_backfill";
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSellerOrders() {
+        // One-off for databases that already had orders when seller_orders was introduced; position 1 marks it done
+        Integer rows = new TransactionTemplate(transactionManager).execute(status -> {
+            // A second instance starting at the same time waits on the row and then finds the marker set
+            Watermark marker = watermarkRepository.lock(SELLER_ORDERS_BACKFILL);
+            if (marker.getPosition() > 0) {
+                return null;
+            }
+            int inserted = sellerOrderRepository.backfill();
+            marker.setPosition(1L);
+            return inserted;
+        });
+        if (rows != null) {
+            logger.info("Backfilled {} seller order rows", rows);
+        }
+    }
+
     @Override
     public OrderResponse getAllOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -125,7 +293,7 @@ public class OrderServiceImpl implements OrderService {
         Page<Order> pageOrders = orderRepository.findAll(pageDetails);
         List<Order> orders = pageOrders.getContent();
         List<OrderDTO> orderDTOs = orders.stream()
-                .map(order -> modelMapper.map(order, OrderDTO.class))
+                .map(orderMapper::toDto)
                 .toList();
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOs);
@@ -138,12 +306,38 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    public OrderResponse getAllOrdersByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, boolean includeCount) {
+        KeysetSlice<Order> slice = keysetQueryExecutor.findSlice(Order.class, "orderId", null,
+                sortBy, sortOrder.equalsIgnoreCase("asc"), cursor, pageSize);
+        List<OrderDTO> orderDTOs = slice.content().stream()
+                .map(orderMapper::toDto)
+                .toList();
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setContent(orderDTOs);
+        orderResponse.setPageSize(pageSize);
+        orderResponse.setLastPage(slice.lastPage());
+        orderResponse.setNextCursor(slice.nextCursor());
+        if (includeCount) {
+            long totalElements = orderRepository.count();
+            orderResponse.setTotalElements(totalElements);
+            orderResponse.setTotalPages((int) Math.ceil((double) totalElements / pageSize));
+        }
+        return orderResponse;
+    }
+
+    @Override
+    @Transactional
     public OrderDTO updateOrder(Long orderId, String status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order","orderId",orderId));
+        Map<String, Object> changed = new LinkedHashMap<>();
+        changed.put("orderId", orderId);
+        changed.put("previousStatus", order.getOrderStatus());
+        changed.put("status", status);
         order.setOrderStatus(status);
         orderRepository.save(order);
-        return modelMapper.map(order, OrderDTO.class);
+        outboxService.record("ORDER", orderId, "ORDER_STATUS_CHANGED", changed);
+        return orderMapper.toDto(order);
     }
 
     @Override
@@ -153,24 +347,13 @@ public class OrderServiceImpl implements OrderService {
                 : Sort.by(sortBy).descending();
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        User seller = authUtil.loggedInUser();
-
-        Page<Order> pageOrders = orderRepository.findAll(pageDetails);
+        Long sellerId = authUtil.loggedInUserId();
 
-        List<Order> sellerOrders = pageOrders.getContent().stream()
-                .filter(order -> order.getOrderItems().stream()
-                        .anyMatch(orderItem -> {
-                            var product = orderItem.getProduct();
-                            if (product == null || product.getUser() == null) {
-                                return false;
-                            }
-                            return product.getUser().getUserId().equals(
-                                    seller.getUserId());
-                        }))
-                .toList();
+        // Filtered and counted in the database, so every page is full and the totals are the seller's own
+        Page<Order> pageOrders = orderRepository.findSellerOrders(sellerId, pageDetails);
 
-        List<OrderDTO> orderDTOs = sellerOrders.stream()
-                .map(order -> modelMapper.map(order, OrderDTO.class))
+        List<OrderDTO> orderDTOs = pageOrders.getContent().stream()
+                .map(orderMapper::toDto)
                 .toList();
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOs);
@@ -0,0 +1,9 @@
+package EcommerceProject.service;
+
+public interface OutboxService {
+    void record(String aggregateType, Long aggregateId, String eventType, Object payload);
+
+    int publishPending();
+
+    void purgePublished();
+}
@@ -0,0 +1,97 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.OutboxEvent;
+import EcommerceProject.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes events into outbox_events as part of the caller's transaction and relays them to every
+ * {@link OutboxSink} in id order. A batch is marked published only after all sinks accepted it.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private List<OutboxSink> sinks;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ecom.outbox.batchSize:200}")
+    private int batchSize;
+
+    @Value("${ecom.outbox.retentionHours:24}")
+    private long retentionHours;
+
+    // An event must never outlive a rolled back change, so there has to be a transaction to join
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventType + " payload", e);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.outbox.flushIntervalMs:1000}")
+    public synchronized int publishPending() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int published = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findUnpublished(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.publish(batch);
+                } catch (Exception e) {
+                    // Nothing is marked, the whole batch goes out again on the next flush
+                    logger.warn("Outbox sink {} failed on {} events, retrying later: {}",
+                            sink.getClass().getSimpleName(), batch.size(), e.getMessage());
+                    return published;
+                }
+            }
+            List<Long> eventIds = batch.stream().map(OutboxEvent::getEventId).toList();
+            transaction.executeWithoutResult(status -> outboxEventRepository.markPublished(eventIds, LocalDateTime.now()));
+            published += batch.size();
+        } while (batch.size() == batchSize);
+        return published;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ecom.outbox.purgeIntervalMs:3600000}")
+    public void purgePublished() {
+        Integer purged = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} published outbox events", purged);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for published outbox events. A batch that throws is retried whole on the next flush,
+ * so implementations must tolerate seeing the same events again.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events) throws Exception;
+}
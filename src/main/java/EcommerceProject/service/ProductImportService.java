@@ -0,0 +1,11 @@
+package EcommerceProject.service;
+
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.payload.ProductImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResponse importProducts(ExportFormat format, InputStream in) throws IOException;
+}
@@ -0,0 +1,323 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.APIException;
+import EcommerceProject.Model.Category;
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.User;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.payload.ProductImportErrorDTO;
+import EcommerceProject.payload.ProductImportResponse;
+import EcommerceProject.repositories.CategoryRepository;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.util.AuthUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from a CSV or NDJSON upload. Rows are parsed one at a time and written in chunks of
+ * ecom.product.importChunkSize, each in its own transaction: one lookup per category for names already
+ * taken, then JDBC-batched inserts. A bad row is reported and skipped; a failed chunk reports all of its rows.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    static final List<String> REQUIRED_COLUMNS = List.of("productName", "description", "quantity", "price", "categoryId");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${ecom.product.importChunkSize:500}")
+    private int chunkSize;
+
+    @Value("${ecom.product.importMaxErrors:1000}")
+    private int maxErrors;
+
+    private record RawRow(long row, Map<String, String> values, String error) {
+    }
+
+    private record ImportRow(long row, Long categoryId, Product product) {
+    }
+
+    private record ChunkResult(List<Product> saved, List<ProductImportErrorDTO> rejected) {
+    }
+
+    private interface RowSource {
+        RawRow next() throws IOException;
+    }
+
+    @Override
+    public ProductImportResponse importProducts(ExportFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == ExportFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        ProductImportResponse report = new ProductImportResponse();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        RawRow raw;
+        try {
+            while ((raw = source.next()) != null) {
+                report.setTotalRows(report.getTotalRows() + 1);
+                if (raw.error() != null) {
+                    fail(report, raw.row(), null, raw.error());
+                } else {
+                    ImportRow row = parse(raw, report);
+                    if (row != null) {
+                        chunk.add(row);
+                    }
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } finally {
+            if (report.getImported() > 0) {
+                cacheManager.getCache(CacheConfig.PRODUCT_PAGES_CACHE).clear();
+            }
+        }
+        logger.info("Imported {} of {} products ({} failed)", report.getImported(), report.getTotalRows(), report.getFailed());
+        return report;
+    }
+
+    private ImportRow parse(RawRow raw, ProductImportResponse report) {
+        Map<String, String> values = raw.values();
+        String productName = values.get("productName");
+        Product product = new Product();
+        Long categoryId;
+        try {
+            product.setProductName(productName != null ? productName.trim() : null);
+            product.setDescription(values.get("description"));
+            product.setQuantity(Integer.parseInt(required(values, "quantity")));
+            product.setPrice(Double.parseDouble(required(values, "price")));
+            String discount = values.get("discount");
+            product.setDiscount(discount == null || discount.isBlank() ? 0 : Double.parseDouble(discount.trim()));
+            categoryId = Long.parseLong(required(values, "categoryId"));
+        } catch (NumberFormatException e) {
+            fail(report, raw.row(), productName, "quantity, price, discount and categoryId must be numbers");
+            return null;
+        } catch (APIException e) {
+            fail(report, raw.row(), productName, e.getMessage());
+            return null;
+        }
+
+        List<String> problems = new ArrayList<>();
+        for (ConstraintViolation<Product> violation : validator.validate(product)) {
+            problems.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (product.getQuantity() < 0 || product.getPrice() < 0) {
+            problems.add("quantity and price must not be negative");
+        }
+        if (product.getDiscount() < 0 || product.getDiscount() > 100) {
+            problems.add("discount must be between 0 and 100");
+        }
+        if (!problems.isEmpty()) {
+            Collections.sort(problems);
+            fail(report, raw.row(), productName, String.join("; ", problems));
+            return null;
+        }
+        return new ImportRow(raw.row(), categoryId, product);
+    }
+
+    private void importChunk(List<ImportRow> chunk, ProductImportResponse report) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ChunkResult result;
+        try {
+            result = transaction.execute(status -> {
+                Map<Long, List<ImportRow>> byCategory = chunk.stream()
+                        .collect(Collectors.groupingBy(ImportRow::categoryId, LinkedHashMap::new, Collectors.toList()));
+                Map<Long, Category> categories = categoryRepository.findAllById(byCategory.keySet()).stream()
+                        .collect(Collectors.toMap(Category::getCategoryId, category -> category));
+                User seller = authUtil.loggedInUserReference();
+
+                List<Product> products = new ArrayList<>(chunk.size());
+                List<ProductImportErrorDTO> rejected = new ArrayList<>();
+                byCategory.forEach((categoryId, rows) -> {
+                    Category category = categories.get(categoryId);
+                    if (category == null) {
+                        rows.forEach(row -> rejected.add(new ProductImportErrorDTO(row.row(), row.product().getProductName(),
+                                "Category not found with categoryId: " + categoryId)));
+                        return;
+                    }
+                    // Names taken before this chunk, plus the ones claimed by earlier rows of it
+                    Set<String> taken = new HashSet<>(productRepository.findExistingNames(categoryId,
+                            rows.stream().map(row -> row.product().getProductName()).collect(Collectors.toSet())));
+                    for (ImportRow row : rows) {
+                        Product product = row.product();
+                        if (!taken.add(product.getProductName())) {
+                            rejected.add(new ProductImportErrorDTO(row.row(), product.getProductName(), "product already exists"));
+                            continue;
+                        }
+                        product.setCategory(category);
+                        product.setUser(seller);
+                        product.setImage("default.png");
+                        products.add(product);
+                    }
+                });
+
+                for (Product product : products) {
+                    product.setSpecialPrice(ProductServiceImpl.specialPrice(product.getPrice(), product.getDiscount()));
+                }
+                // Sequence ids, so these go out as JDBC batches of hibernate.jdbc.batch_size
+                productRepository.saveAll(products);
+                for (Product product : products) {
+                    outboxService.record("PRODUCT", product.getProductId(), "PRODUCT_CREATED", ProductServiceImpl.productEvent(product));
+                }
+                analyticsService.recordProducts(products.size());
+                entityManager.flush();
+                entityManager.clear();
+                return new ChunkResult(products, rejected);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Product import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            chunk.forEach(row -> fail(report, row.row(), row.product().getProductName(), "Not imported: " + e.getMessage()));
+            return;
+        }
+        // Rejections only count once the chunk has committed, otherwise every row is reported above
+        result.rejected().forEach(error -> fail(report, error.getRow(), error.getProductName(), error.getMessage()));
+        result.saved().forEach(productSearchService::index);
+        report.setImported(report.getImported() + result.saved().size());
+    }
+
+    private void fail(ProductImportResponse report, long row, String productName, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ProductImportErrorDTO(row, productName, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String required(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (value == null || value.isBlank()) {
+            throw new APIException(column + " is required");
+        }
+        return value.trim();
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header;
+        try {
+            header = csv.read();
+        } catch (CsvRecordReader.MalformedCsvException e) {
+            throw new APIException("CSV header is malformed: " + e.getMessage());
+        }
+        if (header != null) {
+            // Spreadsheet exports often start with a byte order mark
+            header = header.stream().map(column -> column.replace("\uFEFF", "").trim()).toList();
+        }
+        if (header == null || !header.containsAll(REQUIRED_COLUMNS)) {
+            throw new APIException("CSV header must include " + String.join(", ", REQUIRED_COLUMNS));
+        }
+        List<String> columns = header;
+        long[] row = {0};
+        return () -> {
+            List<String> fields;
+            try {
+                do {
+                    fields = csv.read();
+                } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+            } catch (CsvRecordReader.MalformedCsvException e) {
+                // The rest of the upload went into this record; the chunks before it still stand
+                row[0]++;
+                return new RawRow(row[0], null, e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            row[0]++;
+            if (fields.size() != columns.size()) {
+                return new RawRow(row[0], null, "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                values.put(columns.get(i), fields.get(i));
+            }
+            return new RawRow(row[0], values, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] row = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            row[0]++;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new RawRow(row[0], null, "Not valid JSON");
+            }
+            if (!node.isObject()) {
+                return new RawRow(row[0], null, "Expected a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                if (!field.getValue().isNull()) {
+                    values.put(field.getKey(), field.getValue().asText());
+                }
+            });
+            return new RawRow(row[0], values, null);
+        };
+    }
+}
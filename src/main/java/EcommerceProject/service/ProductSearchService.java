@@ -0,0 +1,29 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Product;
+
+import java.util.List;
+
+public interface ProductSearchService {
+
+    // sortBy value that orders hits by how well they match, best first
+    String SORT_BY_RELEVANCE = "relevance";
+
+    // false until the index has been built, callers should fall back to the JPA query
+    boolean isReady();
+
+    // Whether the index can order hits by this key itself; other keys are left to the JPA query
+    boolean canSort(String sortBy);
+
+    SearchPage search(String keyword, Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, boolean ascending);
+
+    // Both apply once the surrounding transaction commits, or straight away outside of one
+    void index(Product product);
+
+    void remove(Long productId);
+
+    void rebuild();
+
+    record SearchPage(List<Long> productIds, long totalElements) {
+    }
+}
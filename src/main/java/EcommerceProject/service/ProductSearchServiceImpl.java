@@ -0,0 +1,306 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.ProductSearchDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Tokenized inverted index over product name and description. A query term matches every indexed term
+ * that contains it, so the index finds whatever the productName LIKE '%keyword%' query finds, and more.
+ * Those terms are found through a sorted map of term suffixes, never by walking the whole dictionary.
+ * Built at startup, updated after each product change commits on this instance, and rebuilt every
+ * ecom.search.refreshIntervalMs to pick up changes made on other instances.
+ */
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    // A hit in the product name counts more than a hit in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${ecom.search.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; replaced as a whole by rebuild()
+    private Index index = new Index();
+
+    // Changes applied while a rebuild loads its snapshot, replayed onto the new index before it is swapped in
+    private List<Consumer<Index>> pendingChanges;
+
+    private volatile boolean ready = false;
+
+    private record IndexedProduct(Set<String> terms, Long categoryId) {
+    }
+
+    private static final class Index {
+        // term -> (productId -> weight)
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+        // suffix -> terms ending with it; every substring of a term is a prefix of one of its suffixes
+        private final NavigableMap<String, Set<String>> suffixes = new TreeMap<>();
+
+        // productId -> indexed document, needed to remove old postings on update/delete
+        private final Map<Long, IndexedProduct> documents = new HashMap<>();
+
+        private void add(Long productId, String productName, String description, Long categoryId) {
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(productName).forEach(term -> weights.merge(term, NAME_WEIGHT, Math::max));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Math::max));
+
+            weights.forEach((term, weight) -> {
+                Map<Long, Integer> products = postings.get(term);
+                if (products == null) {
+                    products = new HashMap<>();
+                    postings.put(term, products);
+                    for (int i = 0; i < term.length(); i++) {
+                        suffixes.computeIfAbsent(term.substring(i), suffix -> new HashSet<>()).add(term);
+                    }
+                }
+                products.put(productId, weight);
+            });
+            documents.put(productId, new IndexedProduct(weights.keySet(), categoryId));
+        }
+
+        private void delete(Long productId) {
+            IndexedProduct document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms()) {
+                Map<Long, Integer> products = postings.get(term);
+                if (products != null) {
+                    products.remove(productId);
+                    if (products.isEmpty()) {
+                        postings.remove(term);
+                        for (int i = 0; i < term.length(); i++) {
+                            Set<String> terms = suffixes.get(term.substring(i));
+                            terms.remove(term);
+                            if (terms.isEmpty()) {
+                                suffixes.remove(term.substring(i));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private Set<String> termsContaining(String queryTerm) {
+            Set<String> terms = new HashSet<>();
+            suffixes.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).values().forEach(terms::addAll);
+            return terms;
+        }
+    }
+
+    public ProductSearchServiceImpl() {
+    }
+
+    ProductSearchServiceImpl(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        this.enabled = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ecom.search.refreshIntervalMs:300000}",
+            initialDelayString = "${ecom.search.refreshIntervalMs:300000}")
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public boolean canSort(String sortBy) {
+        return SORT_BY_RELEVANCE.equalsIgnoreCase(sortBy) || "productId".equals(sortBy);
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Searches keep using the current index while the new one loads
+        Index rebuilt = new Index();
+        try {
+            for (ProductSearchDocument row : productRepository.findAllSearchDocuments()) {
+                rebuilt.add(row.getProductId(), row.getProductName(), row.getDescription(), row.getCategoryId());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Could not build product search index, {}: {}",
+                    ready ? "keeping the previous one" : "keyword search stays on the database", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built with {} products and {} terms in {} ms",
+                rebuilt.documents.size(), rebuilt.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void index(Product product) {
+        if (!enabled || product.getProductId() == null) {
+            return;
+        }
+        // Read now, the entity may be changed or detached by the time the transaction commits
+        Long productId = product.getProductId();
+        String productName = product.getProductName();
+        String description = product.getDescription();
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        afterCommit(target -> {
+            target.delete(productId);
+            target.add(productId, productName, description, categoryId);
+        });
+    }
+
+    @Override
+    public void remove(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(target -> target.delete(productId));
+    }
+
+    // A rolled back change never reaches the index, and searches never see an uncommitted one
+    private void afterCommit(Consumer<Index> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SearchPage search(String keyword, Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, boolean ascending) {
+        List<String> queryTerms = tokenize(keyword).stream().distinct().toList();
+        if (queryTerms.isEmpty()) {
+            return new SearchPage(List.of(), 0);
+        }
+
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            // Every query term has to be part of an indexed term, scores add up
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (String term : index.termsContaining(queryTerm)) {
+                    int boost = term.equals(queryTerm) ? 2 : 1;
+                    index.postings.get(term).forEach((productId, weight) -> {
+                        IndexedProduct document = index.documents.get(productId);
+                        if (categoryId == null || Objects.equals(categoryId, document.categoryId())) {
+                            termScores.merge(productId, weight * boost, Math::max);
+                        }
+                    });
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Integer> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : termScores.entrySet()) {
+                        Integer score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        Comparator<Map.Entry<Long, Integer>> byId = ascending
+                ? Map.Entry.comparingByKey()
+                : Map.Entry.<Long, Integer>comparingByKey().reversed();
+        ranked.sort(SORT_BY_RELEVANCE.equalsIgnoreCase(sortBy)
+                ? Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey())
+                : byId);
+
+        int from = Math.min(pageNumber * pageSize, ranked.size());
+        int to = Math.min(from + pageSize, ranked.size());
+        List<Long> productIds = ranked.subList(from, to).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+        return new SearchPage(productIds, ranked.size());
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
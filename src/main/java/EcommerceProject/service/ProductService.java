@@ -11,6 +11,8 @@ public interface ProductService {
     ProductDTO addProduct(Long categoryId, ProductDTO product);
     ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
 
+    ProductResponse getAllProductsByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, String keyword, String category, boolean includeCount);
+
     ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
     ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
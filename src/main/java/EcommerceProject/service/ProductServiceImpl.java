@@ -3,34 +3,63 @@ package EcommerceProject.service;
 import EcommerceProject.Exception.APIException;
 import EcommerceProject.Exception.ResourceNotFoundException;
 import EcommerceProject.Model.*;
+import EcommerceProject.config.AppConstants;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.mapper.ProductMapper;
 import EcommerceProject.payload.*;
-import EcommerceProject.repositories.CartRepository;
 import EcommerceProject.repositories.CategoryRepository;
+import EcommerceProject.repositories.KeysetSlice;
+import EcommerceProject.repositories.OrderItemRepository;
 import EcommerceProject.repositories.ProductRepository;
 import EcommerceProject.util.AuthUtil;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     @Autowired
-    private CartRepository cartRepository;
+    private CartService cartService;
 
     @Autowired
-    private CartService cartService;
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CartPriceSyncService cartPriceSyncService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Autowired
     private ProductRepository productRepository;
@@ -39,7 +68,7 @@ public class ProductServiceImpl implements ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
 
     @Autowired
     private FileService fileService;
@@ -47,50 +76,122 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Value("${project.image}")
     private String path;
     @Value("${image.base.url}")
     private String imageBaseUrl;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true)
+    @Transactional
     public ProductDTO addProduct(Long categoryId, ProductDTO productDTO) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        boolean isProductNotPresent = true;
-
-        List<Product> products=category.getProducts();
-
-        for (Product value:products){
-            if(value.getProductName().equals(productDTO.getProductName())){
-                isProductNotPresent = false;
-                break;
-            }
-        }
+        // Looks up just this name instead of loading every product in the category
+        boolean isProductNotPresent = productRepository
+                .findExistingNames(categoryId, List.of(productDTO.getProductName())).isEmpty();
         if(isProductNotPresent){
-            Product product = modelMapper.map(productDTO, Product.class);
+            Product product = productMapper.toEntity(productDTO);
             product.setImage("default.png");
             product.setCategory(category);
-            product.setUser(authUtil.loggedInUser());
-            double specialPrice = product.getPrice() -
-                    ((product.getDiscount() * 0.01) * product.getPrice());
-            product.setSpecialPrice(specialPrice);
+            product.setUser(authUtil.loggedInUserReference());
+            product.setSpecialPrice(specialPrice(product.getPrice(), product.getDiscount()));
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            outboxService.record("PRODUCT", savedProduct.getProductId(), "PRODUCT_CREATED", productEvent(savedProduct));
+            analyticsService.recordProducts(1);
+            productSearchService.index(savedProduct);
+            return productMapper.toDto(savedProduct);
         }else {
             throw new APIException("product already exists");
         }
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE,
+            key = "{'all', #pageNumber, #pageSize, #sortBy, #sortOrder, #keyword, #category}")
     public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+        // Keyword searches are answered from the in-memory index once it is built
+        if (keyword != null && !keyword.isEmpty() && productSearchService.isReady() && productSearchService.canSort(sortBy)) {
+            Long categoryId = null;
+            if (category != null && !category.isEmpty()) {
+                Category categoryFromDb = categoryRepository.findByCategoryName(category);
+                if (categoryFromDb == null) {
+                    return toProductResponse(List.of(), pageNumber, pageSize, 0);
+                }
+                categoryId = categoryFromDb.getCategoryId();
+            }
+            ProductResponse productResponse = searchIndex(keyword, categoryId, pageNumber, pageSize, sortBy, sortOrder);
+            if (productResponse != null) {
+                productResponse.getContent().forEach(productDTO -> productDTO.setImage(constructImageURL(productDTO.getImage())));
+                return productResponse;
+            }
+        }
+
+        Sort sortByAndOrder = databaseSort(sortBy, sortOrder);
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOs(catalogFilter(keyword, category), pageDetails);
+        pageProducts.forEach(productDTO -> productDTO.setImage(constructImageURL(productDTO.getImage())));
+        return toProductResponse(pageProducts);
+    }
+
+    @Override
+    public ProductResponse getAllProductsByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, String keyword, String category, boolean includeCount) {
+        Specification<Product> spec = catalogFilter(keyword, category);
+        KeysetSlice<ProductDTO> slice = productRepository.findProductDTOSlice(spec, sortBy,
+                sortOrder.equalsIgnoreCase("asc"), cursor, pageSize);
+        slice.content().forEach(productDTO -> productDTO.setImage(constructImageURL(productDTO.getImage())));
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(slice.content());
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(slice.lastPage());
+        productResponse.setNextCursor(slice.nextCursor());
+        // Counting is the expensive part of a listing, so only do it when asked for
+        if (includeCount) {
+            long totalElements = productRepository.count(spec);
+            productResponse.setTotalElements(totalElements);
+            productResponse.setTotalPages((int) Math.ceil((double) totalElements / pageSize));
+        }
+        return productResponse;
+    }
+
+    // Null when the database has to answer instead: the index is not built, cannot order by sortBy,
+    // or has no hit (it may not have picked up a product added on another instance yet)
+    private ProductResponse searchIndex(String keyword, Long categoryId, Integer pageNumber, Integer pageSize,
+                                        String sortBy, String sortOrder) {
+        if (!productSearchService.isReady() || !productSearchService.canSort(sortBy)) {
+            return null;
+        }
+        ProductSearchService.SearchPage searchPage = productSearchService.search(keyword, categoryId,
+                pageNumber, pageSize, sortBy, sortOrder.equalsIgnoreCase("asc"));
+        if (searchPage.totalElements() == 0) {
+            return null;
+        }
+        List<ProductDTO> productDTOS = loadInRankOrder(searchPage.productIds());
+        return toProductResponse(productDTOS, pageNumber, pageSize, searchPage.totalElements());
+    }
+
+    // The database has no relevance score, so a relevance sort falls back to the default product order
+    private static Sort databaseSort(String sortBy, String sortOrder) {
+        if (ProductSearchService.SORT_BY_RELEVANCE.equalsIgnoreCase(sortBy)) {
+            return Sort.by(AppConstants.SORT_PRODUCTS_BY).ascending();
+        }
+        return sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+    }
+
+    private Specification<Product> catalogFilter(String keyword, String category) {
         Specification<Product> spec = (root, query, cb) -> cb.conjunction();
 
         if (keyword != null && !keyword.isEmpty()) {
@@ -102,21 +203,49 @@ public class ProductServiceImpl implements ProductService {
             spec = spec.and((root, query, cb) ->
                     cb.equal(root.get("category").get("categoryName"), category));
         }
+        return spec;
+    }
 
-        Page<Product> pageProducts = productRepository.findAll(spec, pageDetails);
-
-        List<Product> products = pageProducts.getContent();
-
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product ->{
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageURL(product.getImage()));
-                    return productDTO;
-                })
+    // Search hits are resolved through the per-product cache, only the misses go to the database in one query
+    private List<ProductDTO> loadInRankOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        Map<Long, ProductDTO> productsById = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            ProductDTO cached = productCache.get(productId, ProductDTO.class);
+            if (cached != null) {
+                productsById.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Specification<Product> byIds = (root, query, cb) -> root.get("productId").in(missing);
+            productRepository.findProductDTOs(byIds, Pageable.unpaged()).forEach(productDTO -> {
+                productCache.put(productDTO.getProductId(), productDTO);
+                productsById.put(productDTO.getProductId(), productDTO);
+            });
+        }
+        // Callers rewrite the image URL, so never hand out the cached instance itself
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(this::copyOf)
                 .toList();
+    }
 
+    private ProductDTO copyOf(ProductDTO productDTO) {
+        return new ProductDTO(productDTO.getProductId(), productDTO.getProductName(), productDTO.getImage(),
+                productDTO.getDescription(), productDTO.getQuantity(), productDTO.getPrice(),
+                productDTO.getDiscount(), productDTO.getSpecialPrice());
+    }
+
+    private ProductResponse toProductResponse(Page<ProductDTO> pageProducts) {
         ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
+        productResponse.setContent(pageProducts.getContent());
         productResponse.setPageNumber(pageProducts.getNumber());
         productResponse.setPageSize(pageProducts.getSize());
         productResponse.setTotalElements(pageProducts.getTotalElements());
@@ -125,11 +254,25 @@ public class ProductServiceImpl implements ProductService {
         return productResponse;
     }
 
+    private ProductResponse toProductResponse(List<ProductDTO> productDTOS, Integer pageNumber, Integer pageSize, long totalElements) {
+        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(productDTOS);
+        productResponse.setPageNumber(pageNumber);
+        productResponse.setPageSize(pageSize);
+        productResponse.setTotalElements(totalElements);
+        productResponse.setTotalPages(totalPages);
+        productResponse.setLastPage(pageNumber >= totalPages - 1);
+        return productResponse;
+    }
+
     private String constructImageURL(String imageName){
         return imageBaseUrl.endsWith("/") ? imageBaseUrl + imageName : imageBaseUrl + "/" + imageName;
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE,
+            key = "{'category', #categoryId, #pageNumber, #pageSize, #sortBy, #sortOrder}")
     public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
@@ -139,60 +282,51 @@ public class ProductServiceImpl implements ProductService {
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByCategoryOrderByPriceAsc(category, pageDetails);
-
-        List<Product> products = pageProducts.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
+        // Cheapest first, then the requested order
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, Sort.by("price").ascending().and(sortByAndOrder));
+        Specification<Product> spec = (root, query, cb) ->
+                cb.equal(root.get("category").get("categoryId"), category.getCategoryId());
 
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
-        return productResponse;
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOs(spec, pageDetails);
+        return toProductResponse(pageProducts);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE,
+            key = "{'keyword', #keyword, #pageNumber, #pageSize, #sortBy, #sortOrder}")
     public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        ProductResponse productResponse = searchIndex(keyword, null, pageNumber, pageSize, sortBy, sortOrder);
+        if (productResponse != null) {
+            return productResponse;
+        }
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByProductNameLikeIgnoreCase('%' + keyword + '%', pageDetails);
-
-
-        List<ProductDTO> productDTOS = pageProducts.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, databaseSort(sortBy, sortOrder));
+        Specification<Product> spec = (root, query, cb) ->
+                cb.like(cb.lower(root.get("productName")), "%" + keyword.toLowerCase() + "%");
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOs(spec, pageDetails);
 
         if(pageProducts.isEmpty()){
             // Throw ResourceNotFoundException if no products match
             throw new APIException("Products not found with keyword: " + keyword);
         }
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
-        return productResponse;
+        return toProductResponse(pageProducts);
     }
 
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true)
+    })
+    @Transactional
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         // Fetch product from DB
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
+        boolean repriced = productFromDb.getSpecialPrice() != productDTO.getSpecialPrice()
+                || productFromDb.getDiscount() != productDTO.getDiscount();
+
         // Map updated fields
         productFromDb.setProductName(productDTO.getProductName());
         productFromDb.setDescription(productDTO.getDescription());
@@ -203,60 +337,50 @@ public class ProductServiceImpl implements ProductService {
 
         // Save updated product
         Product savedProduct = productRepository.save(productFromDb);
+        outboxService.record("PRODUCT", productId, "PRODUCT_UPDATED", productEvent(savedProduct));
+        productSearchService.index(savedProduct);
+
+        // The in-memory stock counter is rebuilt from the new quantity on next use
+        inventoryService.refresh(productId);
 
-        // Find all carts containing this product
-        List<Cart> carts = cartRepository.findCartsByProductId(productId);
-
-        // Convert each cart into your CartDTO (Cart → List<CartItemDTO>)
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            List<CartItemDTO> cartItemDTOs = cart.getCartItems().stream()
-                    .map(cartItem -> new CartItemDTO(
-                            cartItem.getCartItemId(),
-                            modelMapper.map(cartItem.getProduct(), ProductCartDTO.class), // your ProductCartDTO
-                            cartItem.getQuantity(),
-                            cartItem.getDiscount(),
-                            cartItem.getProductPrice(),
-                            cartItem.getProduct().getPrice()
-                    ))
-                    .collect(Collectors.toList());
-
-            return new CartDTO(cart.getCartId(), cart.getTotalPrice(), cartItemDTOs);
-        }).collect(Collectors.toList());
-
-        // Update product inside those carts (business logic)
-        cartDTOs.forEach(cartDTO -> cartService.updateProductInCarts(cartDTO.getCartId(), productId));
-
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        // Carts holding the product pick up the new price in the background
+        if (repriced) {
+            cartPriceSyncService.schedule(productId);
+        }
+
+        return productMapper.toDto(savedProduct);
     }
 
 
     @Override
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true)
+    })
     public ProductDTO deleteProduct(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        // ✅ Find all carts that contain this product
-        List<Cart> carts = cartRepository.findCartsByProductId(productId);
+        // Order lines keep the product, so find out before any cart is touched
+        if (orderItemRepository.existsByProductProductId(productId)) {
+            throw new APIException("Product " + product.getProductName() + " has been ordered and cannot be deleted");
+        }
 
-        // ✅ Remove product from each cart directly
-        carts.forEach(cart -> {
-            CartItem cartItem = cart.getCartItems().stream()
-                    .filter(ci -> ci.getProduct().getProductId().equals(productId))
-                    .findFirst()
-                    .orElse(null);
+        // Take the product out of every cart with chunked bulk statements
+        cartService.removeProductFromCarts(productId);
 
-            if (cartItem != null) {
-                cart.setTotalPrice(cart.getTotalPrice() - (cartItem.getProductPrice() * cartItem.getQuantity()));
-                cart.getCartItems().remove(cartItem);
-            }
-            cartRepository.save(cart);
+        // ✅ Finally delete product itself, with its event and the lines added to carts meanwhile in the same transaction.
+        // If this fails the product stays and deleting it again picks up the cleanup where it stopped.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cartService.removeRemainingCartItems(productId);
+            productRepository.delete(product);
+            outboxService.record("PRODUCT", productId, "PRODUCT_DELETED", Map.of("productId", productId));
+            analyticsService.recordProducts(-1);
         });
+        productSearchService.remove(productId);
+        inventoryService.refresh(productId);
 
-        // ✅ Finally delete product itself
-        productRepository.delete(product);
-
-        return modelMapper.map(product, ProductDTO.class);
+        return productMapper.toDto(product);
     }
 
 
@@ -272,6 +396,11 @@ public class ProductServiceImpl implements ProductService {
 //    }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES_CACHE, allEntries = true)
+    })
+    @Transactional
     public ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException {
         // Get the product from DB
         Product productFromDb = productRepository.findById(productId)
@@ -286,9 +415,10 @@ public class ProductServiceImpl implements ProductService {
 
         // Save updated product
         Product updatedProduct = productRepository.save(productFromDb);
+        outboxService.record("PRODUCT", productId, "PRODUCT_UPDATED", productEvent(updatedProduct));
 
         // return DTO after mapping product to DTO
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        return productMapper.toDto(updatedProduct);
     }
 
     @Override
@@ -298,26 +428,9 @@ public class ProductServiceImpl implements ProductService {
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findAll(pageDetails);
-
-        List<Product> products = pageProducts.getContent();
-
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageURL(product.getImage()));
-                    return productDTO;
-                })
-                .toList();
-
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
-        return productResponse;
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOs(null, pageDetails);
+        pageProducts.forEach(productDTO -> productDTO.setImage(constructImageURL(productDTO.getImage())));
+        return toProductResponse(pageProducts);
     }
 
     @Override
@@ -328,27 +441,29 @@ public class ProductServiceImpl implements ProductService {
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        User user = authUtil.loggedInUser();
-        Page<Product> pageProducts = productRepository.findByUser(user, pageDetails);
-
-        List<Product> products = pageProducts.getContent();
+        Long sellerId = authUtil.loggedInUserId();
+        Specification<Product> spec = (root, query, cb) ->
+                cb.equal(root.get("user").get("userId"), sellerId);
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageURL(product.getImage()));
-                    return productDTO;
-                })
-                .toList();
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOs(spec, pageDetails);
+        pageProducts.forEach(productDTO -> productDTO.setImage(constructImageURL(productDTO.getImage())));
+        return toProductResponse(pageProducts);
+    }
 
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
-        return productResponse;
+    static Map<String, Object> productEvent(Product product) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("productId", product.getProductId());
+        event.put("productName", product.getProductName());
+        event.put("categoryId", product.getCategory() != null ? product.getCategory().getCategoryId() : null);
+        event.put("quantity", product.getQuantity());
+        event.put("price", product.getPrice());
+        event.put("discount", product.getDiscount());
+        event.put("specialPrice", product.getSpecialPrice());
+        event.put("image", product.getImage());
+        return event;
     }
 
+    static double specialPrice(double price, double discount) {
+        return price - ((discount * 0.01) * price);
+    }
 }
@@ -0,0 +1,64 @@
+package EcommerceProject.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Free stock of one product spread over several independently updated stripes, so concurrent holds on a
+ * hot product rarely compete for the same compare-and-set. A take starts at a random stripe and borrows
+ * from the others when that one runs dry.
+ */
+class StripedStock {
+
+    // Stripes sit a cache line apart so they do not false-share
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+
+    StripedStock(int quantity, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, quantity / stripes + (i < quantity % stripes ? 1 : 0));
+        }
+    }
+
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        int taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            while (true) {
+                int available = cells.get(index);
+                if (available <= 0) {
+                    break;
+                }
+                int take = Math.min(available, quantity - taken);
+                if (cells.compareAndSet(index, available, available - take)) {
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            give(taken);
+            return false;
+        }
+        return true;
+    }
+
+    void give(int quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+        }
+    }
+
+    int available() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -1,43 +1,123 @@
 package EcommerceProject.util;
 
 import EcommerceProject.Model.User;
+import EcommerceProject.Security.services.UserDetailsImpl;
 import EcommerceProject.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @Component
 public class AuthUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthUtil.class);
+
+    // The current user is loaded at most once per request and shared by every caller in it
+    private static final String CURRENT_USER_ATTRIBUTE = AuthUtil.class.getName() + ".currentUser";
+    private static final String LOOKUP_STATS_ATTRIBUTE = AuthUtil.class.getName() + ".lookupStats";
+
     @Autowired
     UserRepository userRepository;
 
-    public String loggedInEmail(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+    private record CurrentUser(String username, User user) {
+    }
 
-        return user.getEmail();
+    private static final class LookupStats {
+        int queries;
+        int saved;
     }
 
-    public Long loggedInUserId(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+    public String loggedInEmail(){
+        UserDetailsImpl principal = loggedInPrincipal();
+        if (principal != null) {
+            return principal.getEmail();
+        }
+        return loggedInUser().getEmail();
+    }
 
-        return user.getUserId();
+    public Long loggedInUserId(){
+        UserDetailsImpl principal = loggedInPrincipal();
+        if (principal != null) {
+            return principal.getId();
+        }
+        return loggedInUser().getUserId();
     }
 
     public User loggedInUser(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUser current
+                && current.username().equals(authentication.getName())) {
+            countLookup(request, false);
+            return current.user();
+        }
 
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        User user = loadLoggedInUser(authentication);
+        if (request != null) {
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, new CurrentUser(authentication.getName(), user),
+                    RequestAttributes.SCOPE_REQUEST);
+            countLookup(request, true);
+        }
         return user;
+    }
+
+    // For setting an association only: a reference to the current user, no query when the id is known
+    public User loggedInUserReference(){
+        UserDetailsImpl principal = loggedInPrincipal();
+        if (principal != null) {
+            return userRepository.getReferenceById(principal.getId());
+        }
+        return loggedInUser();
+    }
 
+    private User loadLoggedInUser(Authentication authentication){
+        UserDetailsImpl principal = loggedInPrincipal();
+        if (principal != null) {
+            return userRepository.findById(principal.getId())
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        }
+        return userRepository.findByUserName(authentication.getName())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
     }
 
+    private UserDetailsImpl loggedInPrincipal(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+            return principal;
+        }
+        return null;
+    }
+
+    // Debug only: how many user queries a request ran and how many repeated ones were answered from the request
+    private void countLookup(RequestAttributes request, boolean queried){
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        LookupStats stats = (LookupStats) request.getAttribute(LOOKUP_STATS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (stats == null) {
+            LookupStats newStats = new LookupStats();
+            stats = newStats;
+            request.setAttribute(LOOKUP_STATS_ATTRIBUTE, newStats, RequestAttributes.SCOPE_REQUEST);
+            String uri = request instanceof ServletRequestAttributes servletRequest
+                    ? servletRequest.getRequest().getRequestURI()
+                    : "";
+            request.registerDestructionCallback(LOOKUP_STATS_ATTRIBUTE, () ->
+                    logger.debug("Current user for {}: {} user queries, {} repeated lookups saved",
+                            uri, newStats.queries, newStats.saved), RequestAttributes.SCOPE_REQUEST);
+        }
+        if (queried) {
+            stats.queries++;
+        } else {
+            stats.saved++;
+        }
+    }
 
 }
@@ -0,0 +1,88 @@
+package EcommerceProject.Security.jwt;
+
+import EcommerceProject.Security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTests {
+
+    private static final String SECRET =
+            "bXktdGVzdC1vbmx5LWp3dC1zZWNyZXQtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHM1MTItc2lnbmluZy1rZXlz";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(60_000);
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = jwtUtils.generateTokenFromUsername("user1");
+
+        Claims first = jwtUtils.getValidClaims(token);
+        Claims second = jwtUtils.getValidClaims(token);
+
+        assertThat(first.getSubject()).isEqualTo("user1");
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtils.getUserNameFromJwtToken(token)).isEqualTo("user1");
+    }
+
+    @Test
+    void principalIsRebuiltFromClaims() {
+        UserDetailsImpl user = new UserDetailsImpl(7L, "seller1", "seller1@example.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_SELLER")));
+        String token = jwtUtils.generateTokenFromUserDetails(user);
+
+        UserDetailsImpl principal = jwtUtils.getPrincipalFromClaims(jwtUtils.getValidClaims(token));
+
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("seller1");
+        assertThat(principal.getEmail()).isEqualTo("seller1@example.com");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_SELLER");
+    }
+
+    @Test
+    void tokenWithoutUserClaimsHasNoPrincipal() {
+        String token = jwtUtils.generateTokenFromUsername("user1");
+
+        assertThat(jwtUtils.getPrincipalFromClaims(jwtUtils.getValidClaims(token))).isNull();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtils.generateTokenFromUsername("user1");
+        jwtUtils.getValidClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtUtils.validateJwtToken(tampered)).isFalse();
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        JwtUtils expiring = newJwtUtils(-1_000);
+        String token = expiring.generateTokenFromUsername("user1");
+
+        assertThat(expiring.validateJwtToken(token)).isFalse();
+        assertThat(expiring.validateJwtToken(token)).isFalse();
+    }
+
+    private static JwtUtils newJwtUtils(int expirationMs) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "springBootEcom");
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheMaxSize", 100L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,34 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.payload.CartDeltaDTO;
+import EcommerceProject.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    // The cart grows to this many lines and then only quantities change
+    @Param({"10", "200"})
+    private int cartLines;
+
+    private CartService cartService;
+    private int next;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        cartService = catalog.bean(CartService.class);
+    }
+
+    @Benchmark
+    public CartDeltaDTO addProductToCart(CatalogState catalog) {
+        Long productId = catalog.productIds.get(next++ % cartLines);
+        return catalog.inRequest(() -> cartService.addProductToCart(productId, 1, false));
+    }
+}
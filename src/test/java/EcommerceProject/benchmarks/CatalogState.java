@@ -0,0 +1,125 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.Model.Address;
+import EcommerceProject.Model.Category;
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.User;
+import EcommerceProject.SbEcomApplication;
+import EcommerceProject.repositories.AddressRepository;
+import EcommerceProject.repositories.CategoryRepository;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.UserRepository;
+import EcommerceProject.service.ProductSearchService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Boots the application once per fork against in-memory H2 (bench profile), seeds a catalog and
+ * signs in as the seeded buyer so services relying on AuthUtil work from benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    public static final String BUYER = "user1";
+    public static final String BUYER_EMAIL = "user1@example.com";
+
+    @Param({"500"})
+    public int catalogSize;
+
+    public ConfigurableApplicationContext context;
+    public List<Long> productIds;
+    public Long addressId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(SbEcomApplication.class)
+                .profiles("bench")
+                .run();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(bean(PlatformTransactionManager.class));
+        transactionTemplate.executeWithoutResult(status -> seed());
+        bean(ProductSearchService.class).rebuild();
+
+        // JMH runs setup and measurement on different threads, so the login has to be visible to all of them
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                BUYER, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Same as open-in-view does for an HTTP request: one EntityManager for the whole service call
+    public <T> T inRequest(Supplier<T> call) {
+        EntityManagerFactory entityManagerFactory = bean(EntityManagerFactory.class);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            return call.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+        }
+    }
+
+    private void seed() {
+        UserRepository userRepository = bean(UserRepository.class);
+        User seller = userRepository.findByUserName("seller1").orElseThrow();
+        User buyer = userRepository.findByUserName(BUYER).orElseThrow();
+
+        Category category = new Category();
+        category.setCategoryName("Benchmarks");
+        category = bean(CategoryRepository.class).save(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Benchmark product number " + i);
+            product.setImage("default.png");
+            // Enough stock that repeated checkouts never run out
+            product.setQuantity(Integer.MAX_VALUE / 2);
+            product.setPrice(100 + i);
+            product.setDiscount(10);
+            product.setSpecialPrice((100 + i) * 0.9);
+            product.setCategory(category);
+            product.setUser(seller);
+            products.add(product);
+        }
+        productIds = bean(ProductRepository.class).saveAll(products).stream()
+                .map(Product::getProductId)
+                .toList();
+
+        Address address = new Address();
+        address.setStreet("Benchmark Street");
+        address.setBuildingName("Benchmark House");
+        address.setCity("Pune");
+        address.setState("MH");
+        address.setCountry("India");
+        address.setPincode("411001");
+        address.setUser(buyer);
+        addressId = bean(AddressRepository.class).save(address).getAddressId();
+    }
+}
@@ -0,0 +1,126 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.mapper.*;
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.payload.ProductCartDTO;
+import EcommerceProject.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated mappers against the reflective ModelMapper they replaced, on the shapes the services map per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "10"})
+    private int orderLines;
+
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+
+    private Product product;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapperImpl();
+        orderMapper = newOrderMapper(productMapper);
+        product = sampleProduct(1L);
+        order = sampleOrder(orderLines);
+        // ModelMapper builds its type maps lazily, keep that out of the measurement
+        modelMapper.map(product, ProductDTO.class);
+        modelMapper.map(product, ProductCartDTO.class);
+        modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public ProductDTO productModelMapper() {
+        return modelMapper.map(product, ProductDTO.class);
+    }
+
+    @Benchmark
+    public ProductDTO productGenerated() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public ProductCartDTO cartLineModelMapper() {
+        return modelMapper.map(product, ProductCartDTO.class);
+    }
+
+    @Benchmark
+    public ProductCartDTO cartLineGenerated() {
+        return productMapper.toCartDto(product);
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public OrderDTO orderGenerated() {
+        return orderMapper.toDto(order);
+    }
+
+    public static OrderMapper newOrderMapper(ProductMapper productMapper) {
+        OrderMapper orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "productMapper", productMapper);
+        return orderMapper;
+    }
+
+    public static Product sampleProduct(Long productId) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + productId);
+        product.setDescription("Description of product " + productId);
+        product.setImage("product-" + productId + ".png");
+        product.setQuantity(100);
+        product.setPrice(250.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(225.0);
+        return product;
+    }
+
+    public static Order sampleOrder(int lines) {
+        Address address = new Address();
+        address.setAddressId(7L);
+        address.setCity("Pune");
+
+        Payment payment = new Payment("card", "pi_123", "succeeded", "ok", "stripe");
+        payment.setPaymentId(3L);
+
+        Order order = new Order();
+        order.setOrderId(42L);
+        order.setEmail("buyer@example.com");
+        order.setOrderDate(LocalDate.of(2025, 1, 1));
+        order.setOrderStatus("Accepted");
+        order.setTotalAmount(225.0 * lines);
+        order.setAddress(address);
+        order.setPayment(payment);
+        for (int i = 0; i < lines; i++) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrderItemId((long) i);
+            orderItem.setProduct(sampleProduct((long) i));
+            orderItem.setOrder(order);
+            orderItem.setQuantity(1);
+            orderItem.setDiscount(10.0);
+            orderItem.setOrderedProductPrice(225.0);
+            order.getOrderItems().add(orderItem);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,44 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.service.CartService;
+import EcommerceProject.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"1", "10"})
+    private int cartLines;
+
+    private CartService cartService;
+    private OrderService orderService;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        cartService = catalog.bean(CartService.class);
+        orderService = catalog.bean(OrderService.class);
+    }
+
+    // placeOrder empties the cart, so every invocation needs a freshly filled one
+    @Setup(Level.Invocation)
+    public void fillCart(CatalogState catalog) {
+        for (int i = 0; i < cartLines; i++) {
+            Long productId = catalog.productIds.get(i);
+            catalog.inRequest(() -> cartService.addProductToCart(productId, 1, false));
+        }
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder(CatalogState catalog) {
+        return catalog.inRequest(() -> orderService.placeOrder(CatalogState.BUYER_EMAIL, catalog.addressId,
+                "Card", "Stripe", "pi_benchmark", "succeeded", "Payment successful"));
+    }
+}
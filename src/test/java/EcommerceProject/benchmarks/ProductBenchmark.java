@@ -0,0 +1,45 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.payload.ProductResponse;
+import EcommerceProject.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductBenchmark {
+
+    private ProductService productService;
+    private Cache productPages;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        productService = catalog.bean(ProductService.class);
+        productPages = catalog.bean(CacheManager.class).getCache(CacheConfig.PRODUCT_PAGES_CACHE);
+    }
+
+    @Benchmark
+    public ProductResponse getAllProductsCached(CatalogState catalog) {
+        return catalog.inRequest(() -> productService.getAllProducts(0, 20, "productId", "asc", null, null));
+    }
+
+    @Benchmark
+    public ProductResponse getAllProductsUncached(CatalogState catalog) {
+        productPages.clear();
+        return catalog.inRequest(() -> productService.getAllProducts(0, 20, "productId", "asc", null, null));
+    }
+
+    @Benchmark
+    public ProductResponse getAllProductsByKeywordUncached(CatalogState catalog) {
+        productPages.clear();
+        return catalog.inRequest(() -> productService.getAllProducts(0, 20, "productId", "asc", "product 4", null));
+    }
+}
@@ -0,0 +1,84 @@
+package EcommerceProject.benchmarks;
+
+import EcommerceProject.Model.Category;
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.payload.ProductDTO;
+import EcommerceProject.payload.ProductImportResponse;
+import EcommerceProject.repositories.CategoryRepository;
+import EcommerceProject.service.ProductImportService;
+import EcommerceProject.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// One operation is a whole upload of `rows` products; divide by rows for the per-product cost
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    @Param({"1000", "5000"})
+    private int rows;
+
+    private ProductImportService productImportService;
+    private ProductService productService;
+    private CategoryRepository categoryRepository;
+
+    private Long categoryId;
+    private byte[] csv;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        productImportService = catalog.bean(ProductImportService.class);
+        productService = catalog.bean(ProductService.class);
+        categoryRepository = catalog.bean(CategoryRepository.class);
+    }
+
+    // Names must be new to their category, so every invocation imports into a fresh one
+    @Setup(Level.Invocation)
+    public void prepareUpload() {
+        Category category = new Category();
+        category.setCategoryName("Import benchmark " + System.nanoTime());
+        categoryId = categoryRepository.save(category).getCategoryId();
+
+        StringBuilder upload = new StringBuilder("productName,description,quantity,price,discount,categoryId\n");
+        for (int i = 0; i < rows; i++) {
+            upload.append("Imported product ").append(i).append(",Bulk imported product number ").append(i)
+                    .append(",100,").append(100 + i).append(",10,").append(categoryId).append('\n');
+        }
+        csv = upload.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ProductImportResponse importCsv(CatalogState catalog) {
+        return catalog.inRequest(() -> {
+            try {
+                return productImportService.importProducts(ExportFormat.CSV, new ByteArrayInputStream(csv));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // The same products through the single-product endpoint, for comparison
+    @Benchmark
+    public int addProductOneByOne(CatalogState catalog) {
+        for (int i = 0; i < rows; i++) {
+            ProductDTO productDTO = new ProductDTO();
+            productDTO.setProductName("Imported product " + i);
+            productDTO.setDescription("Bulk imported product number " + i);
+            productDTO.setQuantity(100);
+            productDTO.setPrice(100 + i);
+            productDTO.setDiscount(10);
+            catalog.inRequest(() -> productService.addProduct(categoryId, productDTO));
+        }
+        return rows;
+    }
+}
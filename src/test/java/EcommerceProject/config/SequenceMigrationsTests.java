@@ -0,0 +1,40 @@
+package EcommerceProject.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequenceMigrationsTests {
+
+    private static final SequenceMigrations.SequenceMigration CART_ITEMS = SequenceMigrations.MIGRATIONS.get(0);
+
+    @Test
+    void sequenceStartsPastTheIdsAnExistingTableHandedOut() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sequence-migrations;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE cart_items (cart_item_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO cart_items (cart_item_id) VALUES (7), (120)");
+
+        SequenceMigrations.migrate(jdbcTemplate, CART_ITEMS);
+        // Hibernate takes ids 121..170 from the first value
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cart_items_seq", Long.class)).isEqualTo(170);
+
+        // Later starts leave the sequence where it is
+        jdbcTemplate.execute("INSERT INTO cart_items (cart_item_id) VALUES (500)");
+        SequenceMigrations.migrate(jdbcTemplate, CART_ITEMS);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cart_items_seq", Long.class)).isEqualTo(220);
+    }
+
+    @Test
+    void freshSchemaIsLeftToHibernate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sequence-migrations-fresh;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", ""));
+
+        SequenceMigrations.migrate(jdbcTemplate, CART_ITEMS);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.sequences " +
+                "WHERE sequence_name = 'cart_items_seq'", Integer.class)).isZero();
+    }
+}
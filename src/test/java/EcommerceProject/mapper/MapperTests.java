@@ -0,0 +1,41 @@
+package EcommerceProject.mapper;
+
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.Product;
+import EcommerceProject.benchmarks.MappingBenchmark;
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.payload.ProductCartDTO;
+import EcommerceProject.payload.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The generated mappers must produce exactly what ModelMapper used to.
+ */
+class MapperTests {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final OrderMapper orderMapper = MappingBenchmark.newOrderMapper(productMapper);
+
+    @Test
+    void productMatchesModelMapper() {
+        Product product = MappingBenchmark.sampleProduct(1L);
+
+        assertThat(productMapper.toDto(product)).isEqualTo(modelMapper.map(product, ProductDTO.class));
+        assertThat(productMapper.toCartDto(product)).isEqualTo(modelMapper.map(product, ProductCartDTO.class));
+    }
+
+    @Test
+    void orderMatchesModelMapper() {
+        Order order = MappingBenchmark.sampleOrder(3);
+
+        OrderDTO orderDTO = orderMapper.toDto(order);
+
+        assertThat(orderDTO).isEqualTo(modelMapper.map(order, OrderDTO.class));
+        assertThat(orderDTO.getAddressId()).isEqualTo(7L);
+        assertThat(orderDTO.getOrderItems()).hasSize(3);
+    }
+}
@@ -0,0 +1,114 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(KeysetQueryExecutor.class)
+class CartRepositoryTests {
+
+    private static final int LINES = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long buyerId;
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        User buyer = new User("buyer", "buyer@example.com", "password");
+        entityManager.persist(buyer);
+        buyerId = buyer.getUserId();
+
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        entityManager.persist(cart);
+        cartId = cart.getCartId();
+
+        double total = 0;
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setQuantity(10);
+            product.setSpecialPrice(10);
+            entityManager.persist(product);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            entityManager.persist(cartItem);
+            total += cartItem.getProductPrice();
+        }
+        cart.setTotalPrice(total);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void totalDeltaTouchesOnlyTheCartRow() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(cartRepository.findCartIdByUserId(buyerId)).isEqualTo(cartId);
+        assertThat(cartRepository.addToTotalPrice(cartId, 25.0)).isEqualTo(1);
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo(LINES * 10 + 25.0);
+
+        // Lookup, update and read back, however many lines the cart holds
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void repricingRewritesLinesAndRecomputesTotals() {
+        Product product = productRepository.findAll().get(0);
+        product.setSpecialPrice(30);
+        productRepository.saveAndFlush(product);
+
+        List<Long> cartItemIds = cartItemRepository.findIdsByProductId(product.getProductId(), 0L, Limit.of(100));
+        assertThat(cartItemIds).hasSize(1);
+
+        assertThat(cartItemRepository.repriceCartItems(product.getProductId(), cartItemIds)).isEqualTo(1);
+        assertThat(cartRepository.recomputeTotalsForCartItems(cartItemIds)).isEqualTo(1);
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo((LINES - 1) * 10 + 30.0);
+    }
+
+    @Test
+    void removingAProductSubtractsItsLinesAndDeletesThem() {
+        Product product = productRepository.findAll().get(0);
+        List<Long> cartItemIds = cartItemRepository.findIdsByProductId(product.getProductId(), 0L, Limit.of(100));
+
+        assertThat(cartRepository.subtractCartItemsFromTotals(cartItemIds)).isEqualTo(1);
+        assertThat(cartItemRepository.deleteAllByCartItemIds(cartItemIds)).isEqualTo(1);
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo((LINES - 1) * 10.0);
+        assertThat(cartItemRepository.countByProductProductId(product.getProductId())).isZero();
+    }
+}
@@ -0,0 +1,138 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Cart;
+import EcommerceProject.Model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InMemoryCartStoreTests {
+
+    private static final Long CART_ID = 7L;
+
+    private final JpaCartStore jpaCartStore = mock(JpaCartStore.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final AtomicLong nanos = new AtomicLong();
+
+    private InMemoryCartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        when(jpaCartStore.findLines(CART_ID)).thenReturn(List.of(new CartLine(1L, 100L, 1, 10, 0)));
+        when(jpaCartStore.getTotalPrice(CART_ID)).thenReturn(10.0);
+        cartStore = new InMemoryCartStore(jpaCartStore, productRepository,
+                Duration.ofMinutes(30), 1000, nanos::get, Runnable::run);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void editsStayInMemoryUntilCheckout() {
+        CartLine existing = cartStore.findLine(CART_ID, 100L);
+        cartStore.saveLine(CART_ID, existing, existing.withQuantity(3));
+        cartStore.saveLine(CART_ID, null, new CartLine(null, 200L, 2, 5, 0));
+
+        assertThat(cartStore.getTotalPrice(CART_ID)).isEqualTo(40.0);
+        verify(jpaCartStore, never()).replaceLines(anyLong(), any());
+
+        cartStore.materialize(CART_ID);
+
+        verify(jpaCartStore).replaceLines(eq(CART_ID), argThat((Collection<CartLine> lines) -> lines.size() == 2));
+        assertThat(cartStore.activeCount()).isZero();
+    }
+
+    @Test
+    void idleCartsAreWrittenBehind() {
+        CartLine existing = cartStore.findLine(CART_ID, 100L);
+        cartStore.saveLine(CART_ID, existing, existing.withQuantity(0));
+
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertThat(cartStore.activeCount()).isZero();
+        verify(jpaCartStore).replaceLines(eq(CART_ID), argThat((Collection<CartLine> lines) -> lines.isEmpty()));
+    }
+
+    @Test
+    void aCartWhoseWriteBehindFailedIsGoneAfterCheckout() {
+        cartStore.saveLine(CART_ID, null, new CartLine(null, 200L, 2, 5, 0));
+        doThrow(new IllegalStateException("database down")).doNothing().when(jpaCartStore).replaceLines(eq(CART_ID), any());
+
+        // Evicted while idle, the write fails and the cart stays pending
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+        assertThat(cartStore.activeCount()).isZero();
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.materialize(CART_ID);
+        // Checkout empties the cart in the database and commits
+        when(jpaCartStore.findLines(CART_ID)).thenReturn(List.of());
+        when(jpaCartStore.getTotalPrice(CART_ID)).thenReturn(0.0);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cartStore.findLine(CART_ID, 200L)).isNull();
+        assertThat(cartStore.getTotalPrice(CART_ID)).isZero();
+
+        cartStore.flush();
+        // The failed write-behind and the checkout, nothing written back afterwards
+        verify(jpaCartStore, times(2)).replaceLines(eq(CART_ID), any());
+    }
+
+    @Test
+    void untouchedCartsAreDroppedWithoutWriting() {
+        cartStore.findLine(CART_ID, 100L);
+
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertThat(cartStore.activeCount()).isZero();
+        verify(jpaCartStore, never()).replaceLines(anyLong(), any());
+    }
+
+    @Test
+    void productChangesReachActiveCarts() {
+        cartStore.saveLine(CART_ID, null, new CartLine(null, 200L, 2, 5, 0));
+
+        cartStore.productRepriced(100L, 8, 20);
+        assertThat(cartStore.findLine(CART_ID, 100L).productPrice()).isEqualTo(8);
+        assertThat(cartStore.getTotalPrice(CART_ID)).isEqualTo(18.0);
+
+        cartStore.productRemoved(200L);
+        assertThat(cartStore.findLine(CART_ID, 200L)).isNull();
+        assertThat(cartStore.getTotalPrice(CART_ID)).isEqualTo(8.0);
+    }
+
+    @Test
+    void linesOfDeletedProductsAreDroppedFromTheCart() {
+        cartStore.saveLine(CART_ID, null, new CartLine(null, 200L, 2, 5, 0));
+        Product remaining = new Product();
+        remaining.setProductId(200L);
+        when(productRepository.findAllById(any())).thenReturn(List.of(remaining));
+
+        Cart cart = cartStore.loadCart(CART_ID);
+
+        assertThat(cart.getCartItems()).extracting(item -> item.getProduct().getProductId()).containsExactly(200L);
+        assertThat(cart.getTotalPrice()).isEqualTo(10.0);
+        assertThat(cartStore.findLine(CART_ID, 100L)).isNull();
+
+        cartStore.materialize(CART_ID);
+        verify(jpaCartStore).replaceLines(eq(CART_ID), argThat((Collection<CartLine> lines) -> lines.size() == 1));
+    }
+}
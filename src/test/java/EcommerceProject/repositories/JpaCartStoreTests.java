@@ -0,0 +1,124 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.Cart;
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @DataJpaTest: each store call runs in its own transaction, as it does behind CartServiceImpl
+@SpringBootTest
+class JpaCartStoreTests {
+
+    @Autowired
+    private JpaCartStore jpaCartStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long cartId;
+    private Long productId;
+    private Long otherProductId;
+
+    @BeforeEach
+    void setUp() {
+        String name = "buyer" + UUID.randomUUID().toString().substring(0, 8);
+        User buyer = userRepository.save(new User(name, name + "@example.com", "password"));
+        cartId = jpaCartStore.findCartId(buyer.getUserId(), true);
+        productId = product("Store product " + name).getProductId();
+        otherProductId = product("Other store product " + name).getProductId();
+    }
+
+    @Test
+    void savingALineMovesTheTotalByTheChange() {
+        jpaCartStore.saveLine(cartId, null, new CartLine(null, productId, 2, 10, 0));
+        assertThat(jpaCartStore.getTotalPrice(cartId)).isEqualTo(20.0);
+
+        CartLine line = jpaCartStore.findLine(cartId, productId);
+        jpaCartStore.saveLine(cartId, line, line.withQuantity(5));
+        assertThat(jpaCartStore.findLine(cartId, productId).quantity()).isEqualTo(5);
+        assertThat(jpaCartStore.getTotalPrice(cartId)).isEqualTo(50.0);
+
+        line = jpaCartStore.findLine(cartId, productId);
+        jpaCartStore.saveLine(cartId, line, line.withQuantity(0));
+        assertThat(jpaCartStore.findLine(cartId, productId)).isNull();
+        assertThat(jpaCartStore.getTotalPrice(cartId)).isEqualTo(0.0);
+    }
+
+    @Test
+    void aLineRemovedSinceItWasReadIsAddedAgain() {
+        jpaCartStore.saveLine(cartId, null, new CartLine(null, productId, 2, 10, 0));
+        CartLine line = jpaCartStore.findLine(cartId, productId);
+
+        // What the product cleanup does to the cart meanwhile
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cartItemRepository.deleteAllByCartId(cartId);
+            cartRepository.updateTotalPrice(cartId, 0.0);
+        });
+
+        jpaCartStore.saveLine(cartId, line, line.withQuantity(3));
+
+        assertThat(jpaCartStore.findLine(cartId, productId).quantity()).isEqualTo(3);
+        assertThat(jpaCartStore.getTotalPrice(cartId)).isEqualTo(30.0);
+    }
+
+    @Test
+    void aConcurrentFirstAddOfTheSameProductAddsToTheStoredLine() {
+        // Both requests read no line for the product, the first one stores it before the second writes
+        CartLine first = jpaCartStore.saveLine(cartId, null, new CartLine(null, productId, 2, 10, 0));
+        CartLine second = jpaCartStore.saveLine(cartId, null, new CartLine(null, productId, 3, 12, 0));
+
+        assertThat(second.cartItemId()).isEqualTo(first.cartItemId());
+        assertThat(second.quantity()).isEqualTo(5);
+        assertThat(jpaCartStore.findLine(cartId, productId).quantity()).isEqualTo(5);
+        // The second add keeps the price the line was stored at
+        assertThat(jpaCartStore.getTotalPrice(cartId)).isEqualTo(50.0);
+    }
+
+    @Test
+    void loadCartReflectsChangesMadeInTheSameTransaction() {
+        jpaCartStore.replaceLines(cartId, List.of(new CartLine(null, productId, 1, 10, 0)));
+
+        Cart cart = new TransactionTemplate(transactionManager).execute(status -> {
+            jpaCartStore.loadCart(cartId);
+            jpaCartStore.saveLine(cartId, null, new CartLine(null, otherProductId, 2, 4, 0));
+            Cart loaded = jpaCartStore.loadCart(cartId);
+            loaded.getCartItems().size();
+            return loaded;
+        });
+
+        assertThat(cart.getTotalPrice()).isEqualTo(18.0);
+        assertThat(cart.getCartItems()).extracting(item -> item.getProduct().getProductId())
+                .containsExactlyInAnyOrder(productId, otherProductId);
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription(name + " description");
+        product.setQuantity(10);
+        product.setSpecialPrice(10);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,152 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Exception.APIException;
+import EcommerceProject.Model.Category;
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(KeysetQueryExecutor.class)
+class KeysetQueryExecutorTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private KeysetQueryExecutor keysetQueryExecutor;
+
+    @Test
+    void orderPagesFollowTheSortKeyWithNullsLast() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Order order = new Order();
+            order.setEmail("buyer" + i + "@example.com");
+            // Repeated amounts fall back to the id, orders without an amount come last
+            order.setTotalAmount(i % 4 == 0 ? null : (double) (i % 5));
+            orders.add(entityManager.persist(order));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getTotalAmount, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Order::getOrderId))
+                .map(Order::getOrderId)
+                .toList();
+
+        List<List<Order>> pages = walk(cursor -> keysetQueryExecutor.findSlice(Order.class, "orderId", null,
+                "totalAmount", true, cursor, 5));
+
+        assertThat(pages).extracting(List::size).containsExactly(5, 5, 2);
+        assertThat(pages.stream().flatMap(List::stream).map(Order::getOrderId)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void categoryPagesEndWithoutAnEmptyPage() {
+        for (int i = 0; i < 10; i++) {
+            Category category = new Category();
+            category.setCategoryName("Category " + i);
+            entityManager.persist(category);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<List<Category>> pages = walk(cursor -> keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                "categoryName", false, cursor, 5));
+
+        // Ten rows in pages of five: the second page is already the last one
+        assertThat(pages).extracting(List::size).containsExactly(5, 5);
+        assertThat(pages.stream().flatMap(List::stream).map(Category::getCategoryName))
+                .isSortedAccordingTo(Comparator.reverseOrder())
+                .hasSize(10);
+    }
+
+    @Test
+    void cursorsThatWereNotIssuedForTheListingAreRejected() {
+        for (int i = 0; i < 2; i++) {
+            Category category = new Category();
+            category.setCategoryName("Category " + i);
+            entityManager.persist(category);
+        }
+        entityManager.flush();
+
+        assertThatThrownBy(() -> keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                "categoryName", true, "not a cursor!", 5))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Invalid cursor");
+
+        // A cursor issued for another sort order cannot continue this one
+        String byId = keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                "categoryId", true, "", 1).nextCursor();
+        assertThatThrownBy(() -> keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                "categoryName", true, byId, 5))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Cursor does not belong to a listing sorted by categoryName");
+
+        assertThatThrownBy(() -> keysetQueryExecutor.findSlice(Category.class, "categoryId", null,
+                "categoryName", true, "", 0))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Page size must be at least 1");
+    }
+
+    @Test
+    void onlyNullableSortKeysGetTheNullArm() {
+        assertThat(keysetQueryExecutor.nullable(Order.class, "orderId")).isFalse();
+        assertThat(keysetQueryExecutor.nullable(Product.class, "price")).isFalse();
+        assertThat(keysetQueryExecutor.nullable(Order.class, "email")).isFalse();
+        assertThat(keysetQueryExecutor.nullable(Order.class, "totalAmount")).isTrue();
+    }
+
+    @Test
+    void pagesOnANonNullableKeyBreakTiesById() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Product product = new Product();
+            product.setProductName("Keyset product " + i);
+            product.setDescription("Keyset description");
+            product.setPrice(i % 3);
+            products.add(entityManager.persist(product));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> expected = products.stream()
+                .sorted(Comparator.comparing(Product::getPrice).reversed()
+                        .thenComparing(Comparator.comparing(Product::getProductId).reversed()))
+                .map(Product::getProductId)
+                .toList();
+
+        List<List<Product>> pages = walk(cursor -> keysetQueryExecutor.findSlice(Product.class, "productId", null,
+                "price", false, cursor, 4));
+
+        assertThat(pages).extracting(List::size).containsExactly(4, 4, 1);
+        assertThat(pages.stream().flatMap(List::stream).map(Product::getProductId)).containsExactlyElementsOf(expected);
+    }
+
+    // Follows nextCursor from the first page; only the last page may come back without one
+    private static <T> List<List<T>> walk(Function<String, KeysetSlice<T>> page) {
+        List<List<T>> pages = new ArrayList<>();
+        String cursor = "";
+        KeysetSlice<T> slice;
+        do {
+            slice = page.apply(cursor);
+            pages.add(slice.content());
+            assertThat(slice.lastPage()).isEqualTo(slice.nextCursor() == null);
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+}
@@ -0,0 +1,130 @@
+package EcommerceProject.repositories;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.payload.ProductDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(KeysetQueryExecutor.class)
+class ProductRepositoryTests {
+
+    private static final int PRODUCTS = 25;
+    private static final int CARTS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+
+        User seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+
+        Product[] products = new Product[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setImage("default.png");
+            product.setQuantity(10);
+            product.setPrice(100);
+            product.setSpecialPrice(90);
+            product.setDiscount(10);
+            product.setCategory(category);
+            product.setUser(seller);
+            products[i] = entityManager.persist(product);
+        }
+
+        // Every product sits in several carts, which used to be loaded eagerly with each product
+        for (int c = 0; c < CARTS; c++) {
+            User buyer = new User("buyer" + c, "buyer" + c + "@example.com", "password");
+            entityManager.persist(buyer);
+            Cart cart = new Cart();
+            cart.setUser(buyer);
+            entityManager.persist(cart);
+            for (Product product : products) {
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(product);
+                cartItem.setQuantity(1);
+                cartItem.setProductPrice(product.getSpecialPrice());
+                entityManager.persist(cartItem);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void catalogPageRunsOneSelectAndOneCount() {
+        Page<ProductDTO> page = productRepository.findProductDTOs(null,
+                PageRequest.of(1, 10, Sort.by("productId").ascending()));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void filteredCatalogPageRunsOneSelectAndOneCount() {
+        Specification<Product> spec = (root, query, cb) ->
+                cb.equal(root.get("category").get("categoryName"), "Electronics");
+
+        Page<ProductDTO> page = productRepository.findProductDTOs(spec,
+                PageRequest.of(0, 10, Sort.by("price").descending()));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cursorPagesWalkTheWholeCatalogWithoutCounting() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            KeysetSlice<ProductDTO> slice = productRepository.findProductDTOSlice(null, "price", false, cursor, 10);
+            slice.content().forEach(productDTO -> seen.add(productDTO.getProductId()));
+            cursor = slice.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Every product has the same price, so ordering falls back to the id tie-breaker
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(PRODUCTS).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages);
+    }
+}
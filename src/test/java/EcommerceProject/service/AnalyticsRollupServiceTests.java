@@ -0,0 +1,149 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.payload.AnalyticsBucketDTO;
+import EcommerceProject.payload.AnalyticsResponse;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ecom.analytics.rollupChunkSize=1")
+@Import(CheckoutFixture.class)
+class AnalyticsRollupServiceTests {
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutFixture fixture;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PendingRollupRepository pendingRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRollupRepository productRollupRepository;
+
+    @Autowired
+    private CategoryRollupRepository categoryRollupRepository;
+
+    @Test
+    void ordersAreRolledUpOnceAndServedByRange() {
+        Category category = fixture.category("Rollup");
+        String categoryId = String.valueOf(category.getCategoryId());
+        Product product = fixture.product("Rollup product", 10, null, category);
+        CheckoutFixture.Buyer buyer = fixture.buyer("rollup", 4, product);
+
+        orderService.placeOrder(buyer.email(), buyer.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+
+        LocalDate today = LocalDate.now();
+        // Two instances running the job at once take turns on the watermark row
+        CompletableFuture.allOf(CompletableFuture.runAsync(analyticsRollupService::rollUp),
+                CompletableFuture.runAsync(analyticsRollupService::rollUp)).join();
+        // Nothing new behind the watermark, so a later run adds nothing
+        analyticsRollupService.rollUp();
+
+        ProductRollup productRollup = productRollupRepository.findById(new ProductRollup.Key(today, product.getProductId())).orElseThrow();
+        assertThat(productRollup.getOrders()).isEqualTo(1);
+        assertThat(productRollup.getUnits()).isEqualTo(4);
+        assertThat(productRollup.getRevenue()).isEqualTo(40.0);
+        CategoryRollup categoryRollup = categoryRollupRepository.findById(new CategoryRollup.Key(today, category.getCategoryId())).orElseThrow();
+        assertThat(categoryRollup.getUnits()).isEqualTo(4);
+
+        AnalyticsResponse daily = analyticsService.getAnalyticsData(today.minusDays(6), today, "DAY", 100);
+        assertThat(daily.getRange().getSeries()).hasSize(7);
+        AnalyticsBucketDTO todayPoint = daily.getRange().getSeries().get(6);
+        assertThat(todayPoint.getKey()).isEqualTo(today.toString());
+        assertThat(todayPoint.getOrders()).isEqualTo(1);
+        assertThat(todayPoint.getUnits()).isEqualTo(4);
+        assertThat(todayPoint.getRevenue()).isEqualTo(40.0);
+        assertThat(daily.getRange().getTopCategories())
+                .anySatisfy(bucket -> assertThat(bucket.getKey()).isEqualTo(categoryId));
+
+        AnalyticsResponse hourly = analyticsService.getAnalyticsData(today, today, "HOUR", 10);
+        assertThat(hourly.getRange().getSeries()).hasSize(24);
+        assertThat(hourly.getRange().getSeries().stream().mapToLong(AnalyticsBucketDTO::getOrders).sum()).isEqualTo(1);
+        assertThat(hourly.getRange().getSeries().stream().mapToLong(AnalyticsBucketDTO::getUnits).sum()).isEqualTo(4);
+    }
+
+    @Test
+    void anOrderThatCommitsAfterALaterOneIsStillRolledUp() throws Exception {
+        // A past day, so the series asserted elsewhere in this class are untouched
+        LocalDate day = LocalDate.of(2020, 1, 15);
+        Product slow = fixture.product("Slow commit", 10, null, fixture.category("Slow commit"));
+        Product fast = fixture.product("Fast commit", 10, null, fixture.category("Fast commit"));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> slowOrder = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            Long orderId = writeOrder(slow, day);
+            written.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return orderId;
+        }));
+        written.await();
+        Long fastOrder = transaction.execute(status -> writeOrder(fast, day));
+
+        analyticsRollupService.rollUp();
+        assertThat(productRollupRepository.findById(new ProductRollup.Key(day, fast.getProductId()))).isPresent();
+        assertThat(productRollupRepository.findById(new ProductRollup.Key(day, slow.getProductId()))).isEmpty();
+
+        release.countDown();
+        assertThat(slowOrder.join()).isLessThan(fastOrder);
+        analyticsRollupService.rollUp();
+
+        ProductRollup slowRollup = productRollupRepository.findById(new ProductRollup.Key(day, slow.getProductId())).orElseThrow();
+        assertThat(slowRollup.getOrders()).isEqualTo(1);
+        assertThat(slowRollup.getUnits()).isEqualTo(2);
+        assertThat(productRollupRepository.findById(new ProductRollup.Key(day, fast.getProductId())).orElseThrow().getOrders()).isEqualTo(1);
+        assertThat(pendingRollupRepository.count()).isZero();
+    }
+
+    // What checkout writes for the rollups: the order, its line and the queue row, in the caller's transaction
+    private Long writeOrder(Product product, LocalDate day) {
+        Order order = new Order();
+        order.setEmail("rollup@example.com");
+        order.setOrderDate(day);
+        order.setCreatedAt(day.atTime(10, 0));
+        order.setTotalAmount(20.0);
+        order.setOrderStatus("Order Accepted !");
+        order = orderRepository.save(order);
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setProduct(product);
+        orderItem.setQuantity(2);
+        orderItem.setOrderedProductPrice(10);
+        orderItemRepository.save(orderItem);
+        pendingRollupRepository.add(order.getOrderId());
+        return order.getOrderId();
+    }
+}
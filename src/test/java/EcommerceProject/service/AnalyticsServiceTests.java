@@ -0,0 +1,107 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.payload.AnalyticsResponse;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(CheckoutFixture.class)
+class AnalyticsServiceTests {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AnalyticsBucketRepository analyticsBucketRepository;
+
+    @Autowired
+    private CheckoutFixture fixture;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private record Checkout(String email, Long addressId, Long sellerId, Long categoryId) {
+    }
+
+    @Test
+    void checkoutAddsToTheCountersAndItsBuckets() {
+        Checkout checkout = seedCart();
+        analyticsService.refresh();
+        AnalyticsResponse before = analyticsService.getAnalyticsData();
+
+        orderService.placeOrder(checkout.email(), checkout.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+
+        analyticsService.refresh();
+        AnalyticsResponse after = analyticsService.getAnalyticsData();
+        assertThat(Long.parseLong(after.getTotalOrders())).isEqualTo(Long.parseLong(before.getTotalOrders()) + 1);
+        assertThat(Double.parseDouble(after.getTotalRevenue())).isEqualTo(Double.parseDouble(before.getTotalRevenue()) + 30.0);
+        assertBucket("SELLER", checkout.sellerId(), 1, 3, 30.0);
+        assertBucket("CATEGORY", checkout.categoryId(), 1, 3, 30.0);
+    }
+
+    @Test
+    void aRolledBackCheckoutLeavesNoBucketsBehind() {
+        Checkout checkout = seedCart();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderService.placeOrder(checkout.email(), checkout.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+            status.setRollbackOnly();
+        });
+
+        assertThat(analyticsBucketRepository.findByDimensionAndBucketKey("SELLER", String.valueOf(checkout.sellerId()))).isEmpty();
+
+        // The buckets are created again by the next checkout instead of being taken as known
+        orderService.placeOrder(checkout.email(), checkout.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+        assertBucket("SELLER", checkout.sellerId(), 1, 3, 30.0);
+        assertBucket("CATEGORY", checkout.categoryId(), 1, 3, 30.0);
+    }
+
+    @Test
+    void theDashboardSumsTheSlotsOfABucket() {
+        String key = "slots" + UUID.randomUUID().toString().substring(0, 8);
+        // Revenue high enough to rank first among whatever other tests left behind
+        analyticsBucketRepository.saveAll(List.of(
+                new AnalyticsBucket("SELLER", key, 0, 1L, 2L, 1e12),
+                new AnalyticsBucket("SELLER", key, 3, 2L, 5L, 1e12)));
+
+        analyticsService.refresh();
+
+        assertThat(analyticsService.getAnalyticsData().getTopSellers().get(0)).satisfies(bucket -> {
+            assertThat(bucket.getKey()).isEqualTo(key);
+            assertThat(bucket.getOrders()).isEqualTo(3);
+            assertThat(bucket.getUnits()).isEqualTo(7);
+            assertThat(bucket.getRevenue()).isEqualTo(2e12);
+        });
+    }
+
+    // Sums the slots, as the dashboard does
+    private void assertBucket(String dimension, Long key, long orders, long units, double revenue) {
+        List<AnalyticsBucket> slots = analyticsBucketRepository.findByDimensionAndBucketKey(dimension, String.valueOf(key));
+        assertThat(slots).isNotEmpty();
+        assertThat(slots.stream().mapToLong(AnalyticsBucket::getOrders).sum()).isEqualTo(orders);
+        assertThat(slots.stream().mapToLong(AnalyticsBucket::getUnits).sum()).isEqualTo(units);
+        assertThat(slots.stream().mapToDouble(AnalyticsBucket::getRevenue).sum()).isEqualTo(revenue);
+    }
+
+    private Checkout seedCart() {
+        User seller = fixture.user("seller");
+        Category category = fixture.category("Analytics");
+        Product product = fixture.product("Analytics product " + seller.getUserName(), 10, seller, category);
+        CheckoutFixture.Buyer buyer = fixture.buyer("analytics", 3, product);
+        return new Checkout(buyer.email(), buyer.addressId(), seller.getUserId(), category.getCategoryId());
+    }
+}
@@ -0,0 +1,118 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.ResourceNotFoundException;
+import EcommerceProject.Model.*;
+import EcommerceProject.payload.CartPriceSyncDTO;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+class CartPriceSyncServiceTests {
+
+    @Autowired
+    private CartPriceSyncService cartPriceSyncService;
+
+    @Autowired
+    private CartPriceSyncJobRepository cartPriceSyncJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Test
+    void cartsPickUpTheNewPriceAndTheJobIsRecorded() {
+        Product product = product();
+        Long firstCart = cartWith(product, 2);
+        Long secondCart = cartWith(product, 1);
+
+        product.setSpecialPrice(15);
+        productRepository.save(product);
+        CartPriceSyncDTO queued = cartPriceSyncService.schedule(product.getProductId());
+        assertThat(queued.getStatus()).isEqualTo("QUEUED");
+
+        CartPriceSyncDTO done = awaitDone(product.getProductId());
+        assertThat(done.getCartItemsTotal()).isEqualTo(2);
+        assertThat(done.getCartItemsUpdated()).isEqualTo(2);
+        assertThat(done.getFinishedAt()).isNotNull();
+        assertThat(cartRepository.findTotalPriceByCartId(firstCart)).isEqualTo(30.0);
+        assertThat(cartRepository.findTotalPriceByCartId(secondCart)).isEqualTo(15.0);
+
+        // Status lives in the database, where every instance reads it
+        CartPriceSyncJob job = cartPriceSyncJobRepository.findById(product.getProductId()).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(CartPriceSyncStatus.DONE);
+        assertThat(job.getRun()).isEqualTo(1);
+    }
+
+    @Test
+    void queueingAgainStartsANewRun() {
+        Product product = product();
+        Long cartId = cartWith(product, 3);
+
+        cartPriceSyncService.schedule(product.getProductId());
+        awaitDone(product.getProductId());
+        product.setSpecialPrice(20);
+        productRepository.save(product);
+        cartPriceSyncService.schedule(product.getProductId());
+
+        CartPriceSyncDTO done = awaitDone(product.getProductId());
+        assertThat(done.getCartItemsUpdated()).isEqualTo(1);
+        assertThat(cartPriceSyncJobRepository.findById(product.getProductId()).orElseThrow().getRun()).isEqualTo(2);
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo(60.0);
+    }
+
+    @Test
+    void productsThatWereNeverRepricedHaveNoStatus() {
+        assertThatThrownBy(() -> cartPriceSyncService.getStatus(-1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private CartPriceSyncDTO awaitDone(Long productId) {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> cartPriceSyncService.getStatus(productId).getStatus(), "DONE"::equals);
+        return cartPriceSyncService.getStatus(productId);
+    }
+
+    private Product product() {
+        Product product = new Product();
+        product.setProductName("Repriced product");
+        product.setDescription("Price changes while in carts");
+        product.setQuantity(10);
+        product.setSpecialPrice(10);
+        return productRepository.save(product);
+    }
+
+    private Long cartWith(Product product, int quantity) {
+        String name = "buyer" + UUID.randomUUID().toString().substring(0, 8);
+        User buyer = userRepository.save(new User(name, name + "@example.com", "password"));
+
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        cart.setTotalPrice(product.getSpecialPrice() * quantity);
+        cart = cartRepository.save(cart);
+
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(product.getSpecialPrice());
+        cartItemRepository.save(cartItem);
+        return cart.getCartId();
+    }
+}
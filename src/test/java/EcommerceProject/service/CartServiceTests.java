@@ -0,0 +1,135 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.User;
+import EcommerceProject.payload.CartDeltaDTO;
+import EcommerceProject.payload.CartItemDTO;
+import EcommerceProject.payload.ProductCartDTO;
+import EcommerceProject.repositories.CartItemRepository;
+import EcommerceProject.repositories.CartRepository;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartServiceTests {
+
+    private static final int LINES = 50;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User buyer;
+    private List<Product> products;
+
+    @BeforeEach
+    void signIn() {
+        String name = "buyer" + UUID.randomUUID().toString().substring(0, 8);
+        buyer = userRepository.save(new User(name, name + "@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(buyer.getUserName(), null, List.of()));
+
+        products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setProductName("Cart product " + i);
+            product.setDescription("Cart description " + i);
+            product.setQuantity(10);
+            product.setSpecialPrice(10);
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replacingTheCartInsertsLinesInJdbcBatches() {
+        cartService.createOrUpdateCartWithItems(cartItems(1));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        cartService.createOrUpdateCartWithItems(cartItems(2));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES);
+        // User and cart lookups, product select, delete, at most two sequence calls, one insert batch and the total update
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(8);
+        Long cartId = cartRepository.findCartIdByUserId(buyer.getUserId());
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo(LINES * 20.0);
+        assertThat(cartItemRepository.findAllByCartId(cartId)).hasSize(LINES)
+                .allSatisfy(cartItem -> assertThat(cartItem.getQuantity()).isEqualTo(2));
+    }
+
+    @Test
+    void changingALineReturnsTheCartWithItsNewTotal() {
+        Long productId = products.get(0).getProductId();
+        cartService.addProductToCart(productId, 1, false);
+
+        // The line (and the cart it points at) is loaded before the total update
+        CartDeltaDTO added = cartService.addProductToCart(productId, 2, true);
+        assertThat(added.getTotalPrice()).isEqualTo(30.0);
+        assertThat(added.getItem().getQuantity()).isEqualTo(3);
+        assertThat(added.getCart().getTotalPrice()).isEqualTo(30.0);
+        assertThat(added.getCart().getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+
+        CartDeltaDTO reduced = cartService.updateProductQuantityInCart(productId, -1, true);
+        assertThat(reduced.getTotalPrice()).isEqualTo(20.0);
+        assertThat(reduced.getCart().getTotalPrice()).isEqualTo(20.0);
+        assertThat(reduced.getCart().getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(2));
+    }
+
+    @Test
+    void theFirstLineOfANewCartComesBackWithTheCart() {
+        // The cart is created in the same transaction, before its first line is stored
+        CartDeltaDTO added = cartService.addProductToCart(products.get(0).getProductId(), 2, true);
+
+        assertThat(added.getTotalPrice()).isEqualTo(20.0);
+        assertThat(added.getCart().getTotalPrice()).isEqualTo(20.0);
+        assertThat(added.getCart().getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(2));
+    }
+
+    private List<CartItemDTO> cartItems(int quantity) {
+        List<CartItemDTO> cartItems = new ArrayList<>();
+        for (Product product : products) {
+            CartItemDTO cartItem = new CartItemDTO();
+            cartItem.setProduct(new ProductCartDTO(product.getProductId(), null, null, null));
+            cartItem.setQuantity(quantity);
+            cartItems.add(cartItem);
+        }
+        return cartItems;
+    }
+}
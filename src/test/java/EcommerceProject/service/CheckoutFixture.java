@@ -0,0 +1,91 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.repositories.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+
+import java.util.UUID;
+
+/**
+ * Users, products and filled carts for tests that place orders. Names get a random suffix, so tests sharing a
+ * context never collide. Pull it in with {@code @Import(CheckoutFixture.class)}.
+ */
+@TestConfiguration
+class CheckoutFixture {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    // A user with an address and a cart, ready for placeOrder
+    record Buyer(User user, Long addressId, Long cartId) {
+        String email() {
+            return user.getEmail();
+        }
+    }
+
+    User user(String prefix) {
+        String name = prefix + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+
+    Category category(String prefix) {
+        Category category = new Category();
+        category.setCategoryName(prefix + " " + UUID.randomUUID().toString().substring(0, 8));
+        return categoryRepository.save(category);
+    }
+
+    // Sold at a special price of 10; seller and category may be null
+    Product product(String productName, int quantity, User seller, Category category) {
+        Product product = new Product();
+        product.setProductName(productName);
+        product.setDescription(productName + " description");
+        product.setQuantity(quantity);
+        product.setSpecialPrice(10);
+        product.setUser(seller);
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    // A new buyer whose cart holds quantity of each product
+    Buyer buyer(String prefix, int quantity, Product... products) {
+        User user = user(prefix);
+        Address address = new Address("Checkout Street", "Checkout House", "Pune", "MH", "India", "411001");
+        address.setUser(user);
+        Long addressId = addressRepository.save(address).getAddressId();
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        double totalPrice = 0;
+        for (Product product : products) {
+            totalPrice += product.getSpecialPrice() * quantity;
+        }
+        cart.setTotalPrice(totalPrice);
+        cart = cartRepository.save(cart);
+
+        for (Product product : products) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(quantity);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItemRepository.save(cartItem);
+        }
+        return new Buyer(user, addressId, cart.getCartId());
+    }
+}
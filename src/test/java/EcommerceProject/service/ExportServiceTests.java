@@ -0,0 +1,99 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Order;
+import EcommerceProject.Model.Product;
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.repositories.OrderRepository;
+import EcommerceProject.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ExportServiceTests {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void productsAreStreamedAsCsvAndNdjson() throws Exception {
+        Product product = new Product();
+        product.setProductName("Export, \"quoted\" product");
+        product.setDescription("Export description");
+        product.setQuantity(7);
+        product.setSpecialPrice(12.5);
+        product = productRepository.save(product);
+        long count = productRepository.count();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertThat(exportService.exportProducts(ExportFormat.CSV, csv)).isEqualTo(count);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).startsWith("productId,productName,description,quantity");
+        assertThat(lines).hasSize((int) count + 1);
+        assertThat(lines).contains(product.getProductId() + ",\"Export, \"\"quoted\"\" product\",Export description,7,0.0,0.0,12.5,,,,");
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.exportProducts(ExportFormat.NDJSON, ndjson);
+        List<String> objects = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(objects).hasSize((int) count);
+        Long productId = product.getProductId();
+        assertThat(objects).anySatisfy(line -> {
+            JsonNode node = objectMapper.readTree(line);
+            assertThat(node.get("productId").asLong()).isEqualTo(productId);
+            assertThat(node.get("productName").asText()).isEqualTo("Export, \"quoted\" product");
+            assertThat(node.get("categoryId").isNull()).isTrue();
+        });
+    }
+
+    @Test
+    void ordersAreStreamedAsCsvAndNdjson() throws Exception {
+        Order order = new Order();
+        order.setEmail("export@example.com");
+        order.setOrderDate(LocalDate.of(2026, 1, 2));
+        order.setCreatedAt(LocalDateTime.of(2026, 1, 2, 10, 15));
+        order.setTotalAmount(42.5);
+        order.setOrderStatus("Order Accepted !");
+        order = orderRepository.save(order);
+        long count = orderRepository.count();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertThat(exportService.exportOrders(ExportFormat.CSV, csv)).isEqualTo(count);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("orderId,email,orderDate,createdAt,orderStatus,totalAmount,addressId,paymentMethod,pgName,pgPaymentId,pgStatus");
+        assertThat(lines).hasSize((int) count + 1);
+        assertThat(lines).contains(order.getOrderId() + ",export@example.com,2026-01-02,2026-01-02T10:15,Order Accepted !,42.5,,,,,");
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertThat(exportService.exportOrders(ExportFormat.NDJSON, ndjson)).isEqualTo(count);
+        List<String> objects = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(objects).hasSize((int) count);
+        Long orderId = order.getOrderId();
+        assertThat(objects).anySatisfy(line -> {
+            JsonNode node = objectMapper.readTree(line);
+            assertThat(node.get("orderId").asLong()).isEqualTo(orderId);
+            assertThat(node.get("email").asText()).isEqualTo("export@example.com");
+            assertThat(node.get("orderDate").asText()).isEqualTo("2026-01-02");
+            assertThat(node.get("totalAmount").asDouble()).isEqualTo(42.5);
+            assertThat(node.get("addressId").isNull()).isTrue();
+        });
+    }
+}
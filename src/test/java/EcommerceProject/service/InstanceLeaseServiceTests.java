@@ -0,0 +1,44 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.InstanceLease;
+import EcommerceProject.repositories.InstanceLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InstanceLeaseServiceTests {
+
+    @Autowired
+    private InstanceLeaseService instanceLeaseService;
+
+    @Autowired
+    private InstanceLeaseRepository instanceLeaseRepository;
+
+    @Test
+    void aLeaseHeldByAnotherLiveInstanceIsRefused() {
+        instanceLeaseRepository.save(new InstanceLease("held-lease", "other-instance", LocalDateTime.now().plusMinutes(1)));
+
+        assertThatThrownBy(() -> instanceLeaseService.acquire("held-lease"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("held by other-instance");
+        assertThat(instanceLeaseService.holds("held-lease")).isFalse();
+    }
+
+    @Test
+    void anExpiredLeaseIsTakenOver() {
+        instanceLeaseRepository.save(new InstanceLease("expired-lease", "other-instance", LocalDateTime.now().minusSeconds(1)));
+
+        instanceLeaseService.acquire("expired-lease");
+        instanceLeaseService.acquire("expired-lease");
+
+        assertThat(instanceLeaseService.holds("expired-lease")).isTrue();
+        assertThat(instanceLeaseRepository.findById("expired-lease").orElseThrow().getHolder())
+                .isEqualTo(instanceLeaseService.instanceId());
+    }
+}
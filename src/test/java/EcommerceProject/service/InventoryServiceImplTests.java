@@ -0,0 +1,138 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.ReservationType;
+import EcommerceProject.Model.StockReservation;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "ecom.inventory.holds.enabled=true",
+        "ecom.inventory.holdTtlSeconds=1",
+        "ecom.inventory.reconcileChunkSize=2"
+})
+class InventoryServiceImplTests {
+
+    private static final long BUYER = 1L;
+    private static final long OTHER_BUYER = 2L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setProductName("Held product " + UUID.randomUUID());
+        product.setDescription("Held product description");
+        product.setQuantity(10);
+        productId = productRepository.save(product).getProductId();
+    }
+
+    @Test
+    void holdsTakeFreeStockUntilReleased() {
+        assertThat(inventoryService.hold(BUYER, productId, 6)).isTrue();
+        assertThat(inventoryService.available(productId)).isEqualTo(4);
+        assertThat(inventoryService.hold(OTHER_BUYER, productId, 5)).isFalse();
+
+        inventoryService.release(BUYER, productId, 2);
+
+        assertThat(inventoryService.available(productId)).isEqualTo(6);
+        assertThat(ledger()).extracting(StockReservation::getType, StockReservation::getQuantity)
+                .containsExactly(tuple(ReservationType.HOLD, 6),
+                        tuple(ReservationType.RELEASE, 2));
+    }
+
+    @Test
+    void checkoutConsumesHoldsAndTopsUpTheRest() {
+        inventoryService.hold(BUYER, productId, 3);
+
+        assertThat(inventoryService.consume(BUYER, Map.of(productId, 5))).isEmpty();
+        assertThat(inventoryService.consume(OTHER_BUYER, Map.of(productId, 6))).containsEntry(productId, 5);
+
+        assertThat(inventoryService.available(productId)).isEqualTo(5);
+        // Until the reconcile the product row still shows the stock before the order
+        assertThat(productRepository.findQuantityById(productId)).isEqualTo(10);
+        assertThat(stockReservationRepository.findStockOnShelf(productId)).isEqualTo(5L);
+    }
+
+    @Test
+    void concurrentReconcilesApplyConsumedStockOnce() {
+        for (long buyer = 10; buyer < 15; buyer++) {
+            inventoryService.consume(buyer, Map.of(productId, 1));
+        }
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(inventoryService::reconcile);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(inventoryService::reconcile);
+        CompletableFuture.allOf(first, second).join();
+        inventoryService.reconcile();
+
+        assertThat(productRepository.findQuantityById(productId)).isEqualTo(5);
+        assertThat(ledger()).filteredOn(StockReservation::getType, ReservationType.CONSUME)
+                .allMatch(StockReservation::isReconciled);
+        inventoryService.refresh(productId);
+        assertThat(inventoryService.available(productId)).isEqualTo(5);
+    }
+
+    @Test
+    void expiredHoldsAreSweptBackIntoTheFreeStock() {
+        inventoryService.hold(BUYER, productId, 4);
+        assertThat(inventoryService.available(productId)).isEqualTo(6);
+
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(200)).until(() -> {
+            inventoryService.sweepExpiredHolds();
+            return inventoryService.available(productId) == 10;
+        });
+
+        assertThat(ledger()).extracting(StockReservation::getType).containsExactly(ReservationType.HOLD, ReservationType.EXPIRE);
+    }
+
+    @Test
+    void aRolledBackCheckoutGivesTheStockBack() {
+        inventoryService.hold(BUYER, productId, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(inventoryService.consume(BUYER, Map.of(productId, 5))).isEmpty();
+            status.setRollbackOnly();
+        });
+
+        assertThat(inventoryService.available(productId)).isEqualTo(8);
+        assertThat(ledger()).extracting(StockReservation::getType).containsExactly(ReservationType.HOLD);
+        // The hold is back too, so the next checkout still gets it
+        assertThat(inventoryService.consume(BUYER, Map.of(productId, 2))).isEmpty();
+        assertThat(inventoryService.available(productId)).isEqualTo(8);
+    }
+
+    private List<StockReservation> ledger() {
+        return stockReservationRepository.findAll().stream()
+                .filter(entry -> entry.getProductId().equals(productId))
+                .sorted((a, b) -> a.getReservationId().compareTo(b.getReservationId()))
+                .toList();
+    }
+}
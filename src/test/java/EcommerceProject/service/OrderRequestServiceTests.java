@@ -0,0 +1,104 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.IdempotencyKeyReusedException;
+import EcommerceProject.Model.*;
+import EcommerceProject.payload.OrderRequestDTO;
+import EcommerceProject.payload.OrderRequestStatusDTO;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@Import(CheckoutFixture.class)
+class OrderRequestServiceTests {
+
+    @Autowired
+    private OrderRequestServiceImpl orderRequestService;
+
+    @Autowired
+    private OrderRequestRepository orderRequestRepository;
+
+    @Autowired
+    private CheckoutFixture fixture;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private User buyer;
+    private Product product;
+    private OrderRequestDTO checkout;
+
+    @BeforeEach
+    void setUp() {
+        product = fixture.product("Async product", 5, null, null);
+        CheckoutFixture.Buyer async = fixture.buyer("async", 2, product);
+        buyer = async.user();
+
+        checkout = new OrderRequestDTO(async.addressId(), "card", "Stripe", "pi_async", "succeeded", "ok");
+    }
+
+    @Test
+    void retriesWithTheSameKeyReturnTheOriginalOrder() {
+        OrderRequestStatusDTO accepted = orderRequestService.submit(buyer.getEmail(), "key-1", "card", checkout);
+        assertThat(accepted.getRequestId()).isNotNull();
+
+        OrderRequestStatusDTO status = awaitFinished(accepted.getRequestId());
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+        assertThat(status.getOrder().getOrderItems()).hasSize(1);
+
+        OrderRequestStatusDTO retried = orderRequestService.submit(buyer.getEmail(), "key-1", "card", checkout);
+        assertThat(retried.getRequestId()).isEqualTo(accepted.getRequestId());
+        assertThat(retried.getOrderId()).isEqualTo(status.getOrderId());
+        assertThat(productRepository.findQuantityById(product.getProductId())).isEqualTo(3);
+    }
+
+    @Test
+    void aKeyReusedForADifferentCheckoutIsRefused() {
+        OrderRequestStatusDTO accepted = orderRequestService.submit(buyer.getEmail(), "key-2", "card", checkout);
+        OrderRequestDTO otherCheckout = new OrderRequestDTO(checkout.getAddressId(), "card", "Stripe", "pi_other", "succeeded", "ok");
+
+        assertThatThrownBy(() -> orderRequestService.submit(buyer.getEmail(), "key-2", "card", otherCheckout))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessage("Idempotency-Key key-2 was already used for a different checkout");
+
+        assertThat(awaitFinished(accepted.getRequestId()).getStatus()).isEqualTo("COMPLETED");
+        assertThat(productRepository.findQuantityById(product.getProductId())).isEqualTo(3);
+    }
+
+    @Test
+    void onlyRequestsWithAnExpiredLeaseAreTakenOver() {
+        LocalDateTime now = LocalDateTime.now();
+        OrderRequest abandoned = orderRequestRepository.save(processing("key-abandoned", now.minusSeconds(1)));
+        OrderRequest running = orderRequestRepository.save(processing("key-running", now.plusMinutes(5)));
+
+        orderRequestService.requeueWaiting();
+
+        assertThat(awaitFinished(abandoned.getRequestId()).getStatus()).isEqualTo("COMPLETED");
+        OrderRequest stillRunning = orderRequestRepository.findById(running.getRequestId()).orElseThrow();
+        assertThat(stillRunning.getStatus()).isEqualTo(OrderRequestStatus.PROCESSING);
+        assertThat(stillRunning.getOwner()).isEqualTo("other-instance");
+        assertThat(productRepository.findQuantityById(product.getProductId())).isEqualTo(3);
+    }
+
+    private OrderRequest processing(String idempotencyKey, LocalDateTime leaseExpiresAt) {
+        return new OrderRequest(null, idempotencyKey, buyer.getEmail(), OrderRequestServiceImpl.requestHash("card", checkout),
+                checkout.getAddressId(), "card", checkout.getPgName(), checkout.getPgPaymentId(), checkout.getPgStatus(),
+                checkout.getPgResponseMessage(), OrderRequestStatus.PROCESSING, "other-instance", leaseExpiresAt,
+                null, null, LocalDateTime.now(), null);
+    }
+
+    private OrderRequestStatusDTO awaitFinished(Long requestId) {
+        return await().atMost(Duration.ofSeconds(10)).pollInterval(Duration.ofMillis(50))
+                .until(() -> orderRequestService.getStatus(buyer.getEmail(), requestId), status -> status.getFinishedAt() != null);
+    }
+}
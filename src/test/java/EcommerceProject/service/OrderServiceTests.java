@@ -0,0 +1,138 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.*;
+import EcommerceProject.config.CacheConfig;
+import EcommerceProject.payload.OrderDTO;
+import EcommerceProject.repositories.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(CheckoutFixture.class)
+class OrderServiceTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutFixture fixture;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SellerOrderRepository sellerOrderRepository;
+
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+
+    @Autowired
+    private OrderServiceImpl orderServiceImpl;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void checkoutStatementsDoNotGrowWithTheCart() {
+        long oneLine = statementsToPlaceOrder(1);
+        long tenLines = statementsToPlaceOrder(10);
+        long hundredLines = statementsToPlaceOrder(100);
+
+        // Only the order line ids can add a statement: one sequence call per 50 ids, one JDBC batch per 50 rows
+        assertThat(tenLines).isLessThanOrEqualTo(oneLine + 1);
+        assertThat(hundredLines).isLessThanOrEqualTo(oneLine + 3);
+    }
+
+    @Test
+    void sellerOrdersArePagedFromTheSellerIndex() {
+        User seller = fixture.user("seller");
+
+        CheckoutFixture.Buyer withSeller = seedCart(3, seller);
+        CheckoutFixture.Buyer withoutSeller = seedCart(2, null);
+        OrderDTO sold = orderService.placeOrder(withSeller.email(), withSeller.addressId(),
+                "card", "Stripe", "pi_test", "succeeded", "ok");
+        orderService.placeOrder(withoutSeller.email(), withoutSeller.addressId(),
+                "card", "Stripe", "pi_test", "succeeded", "ok");
+
+        Page<Order> page = orderRepository.findSellerOrders(seller.getUserId(), PageRequest.of(0, 10, Sort.by("orderId")));
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(Order::getOrderId).containsExactly(sold.getOrderId());
+    }
+
+    @Test
+    void sellerOrderBackfillFillsGapsOnce() {
+        User seller = fixture.user("seller");
+        CheckoutFixture.Buyer older = seedCart(1, seller);
+        CheckoutFixture.Buyer newer = seedCart(1, seller);
+        Long olderOrderId = orderService.placeOrder(older.email(), older.addressId(),
+                "card", "Stripe", "pi_test", "succeeded", "ok").getOrderId();
+        Long newerOrderId = orderService.placeOrder(newer.email(), newer.addressId(),
+                "card", "Stripe", "pi_test", "succeeded", "ok").getOrderId();
+
+        // An order from before seller_orders existed, next to one a checkout already indexed
+        sellerOrderRepository.deleteById(new SellerOrder.Key(olderOrderId, seller.getUserId()));
+        watermarkRepository.deleteById(OrderServiceImpl.SELLER_ORDERS_BACKFILL);
+
+        orderServiceImpl.backfillSellerOrders();
+        assertThat(sellerOrderRepository.existsById(new SellerOrder.Key(olderOrderId, seller.getUserId()))).isTrue();
+        sellerOrderRepository.deleteById(new SellerOrder.Key(olderOrderId, seller.getUserId()));
+        orderServiceImpl.backfillSellerOrders();
+
+        assertThat(watermarkRepository.position(OrderServiceImpl.SELLER_ORDERS_BACKFILL)).isEqualTo(1);
+        assertThat(sellerOrderRepository.existsById(new SellerOrder.Key(newerOrderId, seller.getUserId()))).isTrue();
+        // The second run saw the marker and left the table alone
+        assertThat(sellerOrderRepository.existsById(new SellerOrder.Key(olderOrderId, seller.getUserId()))).isFalse();
+    }
+
+    @Test
+    void checkoutDropsCachedProductPages() {
+        CheckoutFixture.Buyer checkout = seedCart(1, null);
+        Cache productPages = cacheManager.getCache(CacheConfig.PRODUCT_PAGES_CACHE);
+        productPages.put("page-with-old-stock", "cached");
+
+        orderService.placeOrder(checkout.email(), checkout.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+
+        assertThat(productPages.get("page-with-old-stock")).isNull();
+    }
+
+    private long statementsToPlaceOrder(int lines) {
+        CheckoutFixture.Buyer checkout = seedCart(lines, null);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderDTO orderDTO = orderService.placeOrder(checkout.email(), checkout.addressId(),
+                "card", "Stripe", "pi_test", "succeeded", "ok");
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(orderDTO.getOrderItems()).hasSize(lines);
+        assertThat(orderDTO.getOrderItems()).allSatisfy(item -> assertThat(item.getProduct().getQuantity()).isEqualTo(9));
+        assertThat(cartItemRepository.findAllByCartId(checkout.cartId())).isEmpty();
+        return statements;
+    }
+
+    private CheckoutFixture.Buyer seedCart(int lines, User seller) {
+        Product[] products = new Product[lines];
+        for (int i = 0; i < lines; i++) {
+            products[i] = fixture.product("Checkout product " + i, 10, seller, null);
+        }
+        return fixture.buyer("buyer", 1, products);
+    }
+}
@@ -0,0 +1,71 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "ecom.outbox.file=target/outbox-test/events.ndjson",
+        "ecom.outbox.flushIntervalMs=3600000"
+})
+@Import(OutboxServiceTests.Listener.class)
+class OutboxServiceTests {
+
+    private static final Path FILE = Path.of("target/outbox-test/events.ndjson");
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Listener listener;
+
+    @TestConfiguration
+    static class Listener {
+        private final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(OutboxEvent event) {
+            received.add(event);
+        }
+    }
+
+    @Test
+    void onlyCommittedEventsArePublishedOnce() throws Exception {
+        Files.deleteIfExists(FILE);
+        outboxService.publishPending();
+        listener.received.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status ->
+                outboxService.record("ORDER", 1L, "ORDER_STATUS_CHANGED", Map.of("orderId", 1, "status", "Shipped")));
+        transaction.executeWithoutResult(status -> {
+            outboxService.record("ORDER", 2L, "ORDER_STATUS_CHANGED", Map.of("orderId", 2, "status", "Lost"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxService.publishPending()).isEqualTo(1);
+        assertThat(outboxService.publishPending()).isZero();
+
+        assertThat(listener.received).extracting(OutboxEvent::getAggregateId).containsExactly(1L);
+        List<String> lines = Files.readAllLines(FILE);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).contains("\"eventType\":\"ORDER_STATUS_CHANGED\"", "\"status\":\"Shipped\"");
+    }
+}
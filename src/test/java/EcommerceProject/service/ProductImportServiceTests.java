@@ -0,0 +1,131 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Category;
+import EcommerceProject.Model.Product;
+import EcommerceProject.Model.User;
+import EcommerceProject.payload.ExportFormat;
+import EcommerceProject.payload.ProductImportErrorDTO;
+import EcommerceProject.payload.ProductImportResponse;
+import EcommerceProject.repositories.CategoryRepository;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ecom.product.importChunkSize=2")
+class ProductImportServiceTests {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void signIn() {
+        String name = "importer" + UUID.randomUUID().toString().substring(0, 8);
+        User seller = userRepository.save(new User(name, name + "@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(seller.getUserName(), null, List.of()));
+
+        category = new Category();
+        category.setCategoryName("Import " + name);
+        category = categoryRepository.save(category);
+
+        Product existing = new Product();
+        existing.setProductName("Existing lamp");
+        existing.setDescription("Already in the catalog");
+        existing.setCategory(category);
+        productRepository.save(existing);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void csvRowsAreImportedAndBadRowsReported() throws Exception {
+        Long categoryId = category.getCategoryId();
+        String csv = "productName,description,quantity,price,discount,categoryId\r\n" +
+                "Desk lamp,\"Bright, adjustable\",5,200,10," + categoryId + "\r\n" +
+                "Existing lamp,Already in the catalog,1,10,0," + categoryId + "\r\n" +
+                "Floor lamp,Tall standing lamp,3,abc,0," + categoryId + "\r\n" +
+                "Desk lamp,Same name again,1,10,0," + categoryId + "\r\n" +
+                "Wall lamp,Mounted wall lamp,2,50,,999999\r\n" +
+                "\r\n" +
+                "Table lamp,Small table lamp,4,80,25," + categoryId + "\r\n";
+
+        ProductImportResponse report = productImportService.importProducts(ExportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getTotalRows()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(ProductImportErrorDTO::getRow).containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+
+        List<String> names = productRepository.findExistingNames(categoryId, List.of("Desk lamp", "Table lamp", "Floor lamp"));
+        assertThat(names).containsExactlyInAnyOrder("Desk lamp", "Table lamp");
+        Product desk = productRepository.findAll().stream()
+                .filter(product -> "Desk lamp".equals(product.getProductName())
+                        && product.getCategory() != null && categoryId.equals(product.getCategory().getCategoryId()))
+                .findFirst().orElseThrow();
+        assertThat(desk.getSpecialPrice()).isEqualTo(180.0);
+        assertThat(desk.getDescription()).isEqualTo("Bright, adjustable");
+    }
+
+    @Test
+    void ndjsonRowsAreImported() throws Exception {
+        Long categoryId = category.getCategoryId();
+        String ndjson = "{\"productName\":\"Reading lamp\",\"description\":\"Clip-on reading lamp\",\"quantity\":2,\"price\":40,\"categoryId\":" + categoryId + "}\n" +
+                "not json\n" +
+                "{\"productName\":\"Li\",\"description\":\"Too short a name\",\"quantity\":1,\"price\":5,\"categoryId\":" + categoryId + "}\n";
+
+        ProductImportResponse report = productImportService.importProducts(ExportFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ProductImportErrorDTO::getRow).containsExactly(2L, 3L);
+        assertThat(productRepository.findExistingNames(categoryId, List.of("Reading lamp"))).containsExactly("Reading lamp");
+    }
+
+    @Test
+    void anUnterminatedQuoteIsReportedWithTheRowsBeforeIt() throws Exception {
+        Long categoryId = category.getCategoryId();
+        String csv = "productName,description,quantity,price,discount,categoryId\r\n" +
+                "Hall lamp,Hallway lamp,2,30,0," + categoryId + "\r\n" +
+                "Porch lamp,\"Never closed,1,20,0," + categoryId + "\r\n" +
+                "Attic lamp,Swallowed by the quote,1,20,0," + categoryId + "\r\n";
+
+        ProductImportResponse report = productImportService.importProducts(ExportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getTotalRows()).isEqualTo(2);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2L);
+            assertThat(error.getMessage()).isEqualTo("Unterminated quoted field");
+        });
+        assertThat(productRepository.findExistingNames(categoryId, List.of("Hall lamp", "Porch lamp", "Attic lamp")))
+                .containsExactly("Hall lamp");
+    }
+}
@@ -0,0 +1,131 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Model.Category;
+import EcommerceProject.Model.Product;
+import EcommerceProject.repositories.ProductRepository;
+import EcommerceProject.repositories.ProductSearchDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceImplTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private ProductSearchServiceImpl searchService;
+
+    private record Row(Long productId, String productName, String description, Long categoryId) implements ProductSearchDocument {
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public String getDescription() { return description; }
+        public Long getCategoryId() { return categoryId; }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAllSearchDocuments()).thenReturn(List.of(
+                new Row(1L, "Smartphone X", "Phone with a large screen", 10L),
+                new Row(2L, "Phone case", "Fits the Smartphone X", 10L),
+                new Row(3L, "Desk lamp", "Warm light for the phone desk", 20L)));
+        searchService = new ProductSearchServiceImpl(productRepository);
+        searchService.rebuild();
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tokenizeSplitsOnAnythingButLettersAndDigits() {
+        assertThat(ProductSearchServiceImpl.tokenize("Wi-Fi 6E router, 2.4GHz")).containsExactly("wi", "fi", "6e", "router", "2", "4ghz");
+        assertThat(ProductSearchServiceImpl.tokenize("  ")).isEmpty();
+        assertThat(ProductSearchServiceImpl.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void keywordsMatchInsideWordsLikeTheDatabaseSearch() {
+        assertThat(ids("phone", "productId", true)).containsExactly(1L, 2L, 3L);
+        assertThat(ids("martph", "productId", true)).containsExactly(1L, 2L);
+        assertThat(ids("phone lamp", "productId", true)).containsExactly(3L);
+        assertThat(ids("tablet", "productId", true)).isEmpty();
+    }
+
+    @Test
+    void hitsFollowTheRequestedOrder() {
+        assertThat(ids("phone", "productId", false)).containsExactly(3L, 2L, 1L);
+        // Exact name hits first, then names containing the term, then descriptions
+        assertThat(ids("phone", ProductSearchService.SORT_BY_RELEVANCE, true)).containsExactly(2L, 1L, 3L);
+        assertThat(searchService.canSort("price")).isFalse();
+
+        ProductSearchService.SearchPage secondPage = searchService.search("phone", null, 1, 2, "productId", true);
+        assertThat(secondPage.productIds()).containsExactly(3L);
+        assertThat(secondPage.totalElements()).isEqualTo(3);
+
+        assertThat(searchService.search("phone", 20L, 0, 10, "productId", true).productIds()).containsExactly(3L);
+    }
+
+    @Test
+    void updatesAndRemovalsApplyOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        searchService.index(product(3L, "Reading lamp", "Bright light", 20L));
+        searchService.remove(2L);
+
+        assertThat(ids("desk", "productId", true)).containsExactly(3L);
+        assertThat(ids("case", "productId", true)).containsExactly(2L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(ids("desk", "productId", true)).isEmpty();
+        assertThat(ids("reading", "productId", true)).containsExactly(3L);
+        assertThat(ids("case", "productId", true)).isEmpty();
+        // Terms no product uses any more are gone from the suffix lookup too
+        assertThat(ids("ase", "productId", true)).isEmpty();
+        assertThat(ids("ead", "productId", true)).containsExactly(3L);
+    }
+
+    @Test
+    void changesOutsideATransactionApplyStraightAway() {
+        searchService.index(product(4L, "Tablet stand", "Holds any tablet", 20L));
+        assertThat(ids("tablet", "productId", true)).containsExactly(4L);
+
+        searchService.remove(4L);
+        assertThat(ids("tablet", "productId", true)).isEmpty();
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeElsewhere() {
+        when(productRepository.findAllSearchDocuments()).thenReturn(List.of(
+                new Row(1L, "Smartphone X", "Phone with a large screen", 10L),
+                new Row(5L, "Phone charger", "Added on another instance", 10L)));
+
+        searchService.rebuild();
+
+        assertThat(ids("phone", "productId", true)).containsExactly(1L, 5L);
+    }
+
+    private List<Long> ids(String keyword, String sortBy, boolean ascending) {
+        return searchService.search(keyword, null, 0, 10, sortBy, ascending).productIds();
+    }
+
+    private static Product product(Long productId, String productName, String description, Long categoryId) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName(productName);
+        product.setDescription(description);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,124 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.APIException;
+import EcommerceProject.Model.*;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "ecom.cart.cleanupChunkSize=2")
+class ProductServiceTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void deletingAProductTakesItOutOfEveryCart() {
+        Product deleted = product("Discontinued product", 10);
+        Product kept = product("Kept product", 4);
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long cartId = cart();
+            addLine(cartId, deleted, 1);
+            addLine(cartId, kept, 2);
+            cartIds.add(cartId);
+        }
+
+        productService.deleteProduct(deleted.getProductId());
+
+        assertThat(productRepository.existsById(deleted.getProductId())).isFalse();
+        assertThat(cartItemRepository.countByProductProductId(deleted.getProductId())).isZero();
+        for (Long cartId : cartIds) {
+            assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo(8.0);
+            assertThat(cartItemRepository.findAllByCartId(cartId)).extracting(item -> item.getProduct().getProductId())
+                    .containsExactly(kept.getProductId());
+        }
+        assertThat(outboxEventRepository.findAll()).anySatisfy(event -> {
+            assertThat(event.getAggregateId()).isEqualTo(deleted.getProductId());
+            assertThat(event.getEventType()).isEqualTo("PRODUCT_DELETED");
+        });
+    }
+
+    @Test
+    void anOrderedProductIsRefusedBeforeAnyCartIsTouched() {
+        Product ordered = product("Ordered product", 10);
+        Long cartId = cart();
+        addLine(cartId, ordered, 3);
+
+        Order order = new Order();
+        order.setEmail("ordered@example.com");
+        order = orderRepository.save(order);
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setProduct(ordered);
+        orderItem.setQuantity(1);
+        orderItemRepository.save(orderItem);
+
+        assertThatThrownBy(() -> productService.deleteProduct(ordered.getProductId()))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Product Ordered product has been ordered and cannot be deleted");
+
+        assertThat(productRepository.existsById(ordered.getProductId())).isTrue();
+        assertThat(cartItemRepository.countByProductProductId(ordered.getProductId())).isEqualTo(1);
+        assertThat(cartRepository.findTotalPriceByCartId(cartId)).isEqualTo(30.0);
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription(name + " description");
+        product.setQuantity(100);
+        product.setSpecialPrice(price);
+        return productRepository.save(product);
+    }
+
+    private Long cart() {
+        String name = "buyer" + UUID.randomUUID().toString().substring(0, 8);
+        User buyer = userRepository.save(new User(name, name + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        cart.setTotalPrice(0.0);
+        return cartRepository.save(cart).getCartId();
+    }
+
+    private void addLine(Long cartId, Product product, int quantity) {
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(product.getSpecialPrice());
+        cartItemRepository.save(cartItem);
+        cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice() * quantity);
+        cartRepository.save(cart);
+    }
+}
@@ -0,0 +1,74 @@
+package EcommerceProject.service;
+
+import EcommerceProject.Exception.InsufficientStockException;
+import EcommerceProject.Model.*;
+import EcommerceProject.repositories.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(CheckoutFixture.class)
+class ProductStockTests {
+
+    private static final int CHECKOUTS = 40;
+    private static final int STOCK = 25;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutFixture fixture;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = fixture.product("Contended product", STOCK, null, null);
+        List<CheckoutFixture.Buyer> buyers = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            buyers.add(fixture.buyer("buyer", 1, product));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger fulfilled = new AtomicInteger();
+        List<String> rejections = new CopyOnWriteArrayList<>();
+        List<Future<?>> checkouts = new ArrayList<>();
+        try {
+            for (CheckoutFixture.Buyer buyer : buyers) {
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.placeOrder(buyer.email(), buyer.addressId(), "card", "Stripe", "pi_test", "succeeded", "ok");
+                        fulfilled.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejections.addAll(e.getShortages().values());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> checkout : checkouts) {
+                checkout.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(productRepository.findQuantityById(product.getProductId())).isZero();
+        assertThat(fulfilled.get()).isEqualTo(STOCK);
+        // Every rejection reports the stock that was really left, not what the checkout first loaded
+        assertThat(rejections).hasSize(CHECKOUTS - STOCK)
+                .allSatisfy(message -> assertThat(message).startsWith("Only 0 of Contended product left"));
+    }
+}
@@ -0,0 +1,55 @@
+package EcommerceProject.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockTests {
+
+    @Test
+    void takesBorrowAcrossStripesButNeverOvershoot() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertThat(stock.tryTake(7)).isTrue();
+        assertThat(stock.tryTake(4)).isFalse();
+        assertThat(stock.available()).isEqualTo(3);
+
+        stock.give(2);
+        assertThat(stock.tryTake(5)).isTrue();
+        assertThat(stock.available()).isZero();
+    }
+
+    @Test
+    void concurrentHoldsNeverOversell() throws Exception {
+        StripedStock stock = new StripedStock(150, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> holds = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                holds.add(executor.submit(() -> {
+                    start.await();
+                    if (stock.tryTake(1)) {
+                        granted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> hold : holds) {
+                hold.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(granted.get()).isEqualTo(150);
+        assertThat(stock.available()).isZero();
+    }
+}
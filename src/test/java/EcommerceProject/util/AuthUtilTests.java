@@ -0,0 +1,61 @@
+package EcommerceProject.util;
+
+import EcommerceProject.Model.User;
+import EcommerceProject.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AuthUtilTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthUtil authUtil = new AuthUtil();
+    private final User user = new User("user1", "user1@example.com", "password");
+
+    @BeforeEach
+    void setUp() {
+        authUtil.userRepository = userRepository;
+        user.setUserId(1L);
+        when(userRepository.findByUserName("user1")).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user1", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentUserIsLoadedOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(authUtil.loggedInEmail()).isEqualTo("user1@example.com");
+        assertThat(authUtil.loggedInUserId()).isEqualTo(1L);
+        assertThat(authUtil.loggedInUser()).isSameAs(user);
+
+        verify(userRepository, times(1)).findByUserName("user1");
+    }
+
+    @Test
+    void eachRequestLoadsItsOwnUser() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        authUtil.loggedInUser();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        authUtil.loggedInUser();
+
+        verify(userRepository, times(2)).findByUserName("user1");
+    }
+}